@@ -0,0 +1,197 @@
+package org.example;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Граф зависимостей производных результатов: входные параметры -> сигналы -> спектры -> ...
+// Узлы добавляются после своих зависимостей, поэтому порядок добавления - топологический.
+// Изменение входа (из потока Swing) откладывается на DEBOUNCE_MS после последней правки,
+// но не больше чем на MAX_WAIT_MS после первой: при непрерывном перетаскивании ползунка
+// пересчет запускается хотя бы раз за кадр. Затем в фоновом потоке пересчитываются только
+// узлы, зависящие от измененных входов. Если за время пересчета пришла новая правка,
+// текущий проход прерывается между узлами, а оставшиеся узлы переходят в следующий проход;
+// значение узла, досчитанного уже после правки, отбрасывается.
+// Проход видит снимок входов на момент своего начала; этот же снимок получают подписчики
+// (в потоке Swing) вместе со значением, чтобы отображать его с теми параметрами, с которыми
+// оно посчитано.
+public class ComputeGraph {
+    public static final int DEBOUNCE_MS = 16;
+    public static final int MAX_WAIT_MS = 16;
+
+    private final Map<String, Node> nodes = new LinkedHashMap<>();
+    private final Map<String, Object> values = new ConcurrentHashMap<>();
+    private final Set<String> stale = ConcurrentHashMap.newKeySet();
+    private final Set<String> pendingInputs = new HashSet<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "compute-graph");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Timer debounce;
+    private final Timer maxWait;
+
+    public ComputeGraph() {
+        debounce = new Timer(DEBOUNCE_MS, e -> schedule());
+        debounce.setRepeats(false);
+        maxWait = new Timer(MAX_WAIT_MS, e -> schedule());
+        maxWait.setRepeats(false);
+    }
+
+    // Доступ к значениям зависимостей внутри функции узла. Долгие расчеты могут
+    // проверять cancelled() и бросать CancellationException - узел будет пересчитан
+    // в следующем проходе.
+    public interface Values {
+        <T> T get(String name);
+
+        boolean cancelled();
+    }
+
+    private static class Node {
+        final List<String> dependencies;
+        final Function<Values, Object> compute;
+        final List<BiConsumer<Object, Map<String, Object>>> listeners = new ArrayList<>();
+
+        Node(List<String> dependencies, Function<Values, Object> compute) {
+            this.dependencies = dependencies;
+            this.compute = compute;
+        }
+    }
+
+    public void addInput(String name, Object value) {
+        nodes.put(name, new Node(List.of(), null));
+        values.put(name, value);
+    }
+
+    public void addNode(String name, List<String> dependencies, Function<Values, Object> compute) {
+        for (String dependency : dependencies) {
+            if (!nodes.containsKey(dependency)) {
+                throw new IllegalArgumentException("Неизвестная зависимость " + dependency + " узла " + name);
+            }
+        }
+        nodes.put(name, new Node(dependencies, compute));
+        stale.add(name);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String name) {
+        return (T) values.get(name);
+    }
+
+    // Подписка на новые значения узла; вызывается в потоке Swing
+    public void addListener(String name, Consumer<Object> listener) {
+        addListener(name, (value, inputs) -> listener.accept(value));
+    }
+
+    // То же со снимком входов, из которых посчитано значение
+    public void addListener(String name, BiConsumer<Object, Map<String, Object>> listener) {
+        nodes.get(name).listeners.add(listener);
+    }
+
+    // Синхронный расчет всех еще не вычисленных узлов (первоначальное заполнение)
+    public void computeAll() {
+        recompute(generation.get(), false);
+    }
+
+    // Новое значение входа; пересчет начнется после паузы в правках или через MAX_WAIT_MS
+    public void set(String name, Object value) {
+        values.put(name, value);
+        notifyListeners(name, value, inputs());
+        pendingInputs.add(name);
+        debounce.restart();
+        if (!maxWait.isRunning()) maxWait.start();
+    }
+
+    private void schedule() {
+        debounce.stop();
+        maxWait.stop();
+        if (pendingInputs.isEmpty()) return;
+        // Сначала отменяем идущий пересчет: иначе он успеет снять новые отметки stale
+        // и посчитать узлы по старому снимку входов
+        long current = generation.incrementAndGet();
+        for (String node : affectedBy(pendingInputs)) stale.add(node);
+        pendingInputs.clear();
+        executor.execute(() -> recompute(current, true));
+    }
+
+    private Map<String, Object> inputs() {
+        Map<String, Object> inputs = new HashMap<>();
+        for (Map.Entry<String, Node> entry : nodes.entrySet()) {
+            if (entry.getValue().compute == null) inputs.put(entry.getKey(), values.get(entry.getKey()));
+        }
+        return Collections.unmodifiableMap(inputs);
+    }
+
+    private Set<String> affectedBy(Set<String> inputs) {
+        Set<String> affected = new HashSet<>(inputs);
+        for (Map.Entry<String, Node> entry : nodes.entrySet()) {
+            for (String dependency : entry.getValue().dependencies) {
+                if (affected.contains(dependency)) {
+                    affected.add(entry.getKey());
+                    break;
+                }
+            }
+        }
+        affected.removeAll(inputs);
+        return affected;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void recompute(long current, boolean notify) {
+        Map<String, Object> inputs = inputs();
+        Values view = new Values() {
+            @Override
+            public <T> T get(String name) {
+                return (T) (inputs.containsKey(name) ? inputs.get(name) : values.get(name));
+            }
+
+            @Override
+            public boolean cancelled() {
+                return generation.get() != current;
+            }
+        };
+        for (Map.Entry<String, Node> entry : nodes.entrySet()) {
+            if (generation.get() != current) return;
+            String name = entry.getKey();
+            // Снимаем отметку до расчета: правка, пришедшая во время расчета, вернет узел в stale
+            if (!stale.remove(name)) continue;
+
+            Object value;
+            try {
+                value = entry.getValue().compute.apply(view);
+            } catch (CancellationException e) {
+                stale.add(name);
+                return;
+            }
+            // Входы сменились во время расчета: значение по старому снимку не публикуем
+            if (generation.get() != current) {
+                stale.add(name);
+                return;
+            }
+            values.put(name, value);
+            if (notify) SwingUtilities.invokeLater(() -> notifyListeners(name, value, inputs));
+        }
+    }
+
+    private void notifyListeners(String name, Object value, Map<String, Object> inputs) {
+        for (BiConsumer<Object, Map<String, Object>> listener : nodes.get(name).listeners) {
+            listener.accept(value, inputs);
+        }
+    }
+}
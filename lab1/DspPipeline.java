@@ -0,0 +1,436 @@
+package org.example;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+// Конвейер обработки кадров: источник -> стадии -> приемник.
+// Каждая стадия работает в своем потоке, соседние стадии связаны кольцевыми
+// буферами заранее выделенных кадров (один писатель, один читатель, без блокировок).
+// Кадр всегда имеет frameSize отсчетов; во временной области используется re,
+// в частотной - пара re/im.
+public class DspPipeline {
+    // Ожидание: короткий спин, затем парковка с удвоением от MIN до MAX_PARK_NANOS,
+    // чтобы простаивающая стадия при живом источнике просыпалась не чаще ~1000 раз в секунду
+    private static final int SPINS_BEFORE_PARK = 200;
+    private static final long MIN_PARK_NANOS = 20_000;
+    private static final long MAX_PARK_NANOS = 1_000_000;
+
+    private final int frameSize;
+    private final int queueCapacity;
+    private final Source source;
+    private final List<String> names = new ArrayList<>();
+    private final List<Processor> processors = new ArrayList<>();
+    private final List<FrameRing> rings = new ArrayList<>();
+    private final List<StageThread> threads = new ArrayList<>();
+    private volatile Throwable failure;
+
+    public DspPipeline(int frameSize, int queueCapacity, Source source) {
+        if (frameSize < 1 || (frameSize & (frameSize - 1)) != 0) {
+            throw new IllegalArgumentException("Размер кадра должен быть степенью двойки: " + frameSize);
+        }
+        if (queueCapacity < 1 || (queueCapacity & (queueCapacity - 1)) != 0) {
+            throw new IllegalArgumentException("Емкость очереди должна быть степенью двойки: " + queueCapacity);
+        }
+        this.frameSize = frameSize;
+        this.queueCapacity = queueCapacity;
+        this.source = source;
+    }
+
+    public DspPipeline addStage(String name, Processor processor) {
+        if (!threads.isEmpty()) {
+            throw new IllegalStateException("Конвейер уже запущен");
+        }
+        names.add(name);
+        processors.add(processor);
+        return this;
+    }
+
+    public void start(Sink sink) {
+        if (!threads.isEmpty()) {
+            throw new IllegalStateException("Конвейер уже запущен");
+        }
+        for (int i = 0; i <= processors.size(); i++) {
+            rings.add(new FrameRing(queueCapacity, frameSize));
+        }
+
+        threads.add(new StageThread("source", null, rings.get(0)) {
+            @Override
+            boolean step(Frame in, Frame out) {
+                return source.read(out.re);
+            }
+        });
+        for (int i = 0; i < processors.size(); i++) {
+            Processor processor = processors.get(i);
+            threads.add(new StageThread(names.get(i), rings.get(i), rings.get(i + 1)) {
+                @Override
+                boolean step(Frame in, Frame out) {
+                    processor.process(in, out);
+                    return true;
+                }
+            });
+        }
+        threads.add(new StageThread("sink", rings.get(processors.size()), null) {
+            @Override
+            boolean step(Frame in, Frame out) {
+                sink.accept(in);
+                return true;
+            }
+        });
+
+        for (StageThread thread : threads) thread.start();
+    }
+
+    public boolean isRunning() {
+        for (StageThread thread : threads) {
+            if (thread.isAlive()) return true;
+        }
+        return false;
+    }
+
+    // Ожидает, пока последний кадр дойдет до приемника
+    public void awaitCompletion() throws InterruptedException {
+        for (StageThread thread : threads) thread.join();
+        if (failure != null) {
+            throw new IllegalStateException("Стадия конвейера завершилась с ошибкой", failure);
+        }
+    }
+
+    // Снимок статистики: по одной записи на источник, каждую стадию и приемник
+    public List<StageStats> stats() {
+        List<StageStats> result = new ArrayList<>();
+        for (StageThread thread : threads) {
+            int depth = thread.input == null ? 0 : thread.input.size();
+            result.add(new StageStats(thread.getName(), thread.frames.get(), thread.busyNanos.get(),
+                    thread.elapsedNanos(), depth, frameSize));
+        }
+        return result;
+    }
+
+    // Источник заполняет кадр целиком; false означает конец потока
+    public interface Source {
+        boolean read(double[] frame);
+    }
+
+    // Обработчик стадии: читает in и пишет результат в out (оба - заранее выделенные кадры)
+    public interface Processor {
+        void process(Frame in, Frame out);
+    }
+
+    public interface Sink {
+        void accept(Frame frame);
+    }
+
+    public static class Frame {
+        public final double[] re;
+        public final double[] im;
+        public long sequence;
+        boolean endOfStream;
+
+        Frame(int size) {
+            re = new double[size];
+            im = new double[size];
+        }
+    }
+
+    public record StageStats(String name, long frames, long busyNanos, long elapsedNanos,
+                             int queueDepth, int frameSize) {
+        public double framesPerSecond() {
+            return elapsedNanos == 0 ? 0 : frames * 1e9 / elapsedNanos;
+        }
+
+        public double samplesPerSecond() {
+            return framesPerSecond() * frameSize;
+        }
+
+        // Доля времени, которую стадия занята работой, а не ожиданием соседей
+        public double utilization() {
+            return elapsedNanos == 0 ? 0 : (double) busyNanos / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%-10s кадров: %8d, %10.0f кадр/с, загрузка %5.1f%%, очередь: %d",
+                    name, frames, framesPerSecond(), utilization() * 100, queueDepth);
+        }
+    }
+
+    // ---- Источники ----
+
+    // Циклически нарезает готовый сигнал (например, из generateSignal) на frames кадров
+    public static Source signalSource(double[] signal, long frames) {
+        return new Source() {
+            private long produced;
+            private int position;
+
+            @Override
+            public boolean read(double[] frame) {
+                if (produced++ >= frames) return false;
+                for (int i = 0; i < frame.length; i++) {
+                    frame[i] = signal[position];
+                    if (++position == signal.length) position = 0;
+                }
+                return true;
+            }
+        };
+    }
+
+    // Чтение 16-битного PCM из WAV-файла; каналы сводятся в моно, последний кадр дополняется нулями
+    public static Source wavSource(File file) {
+        AudioInputStream stream;
+        try {
+            stream = AudioSystem.getAudioInputStream(file);
+        } catch (UnsupportedAudioFileException e) {
+            throw new IllegalArgumentException("Неподдерживаемый аудиофайл: " + file, e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        AudioFormat format = stream.getFormat();
+        if (format.getEncoding() != AudioFormat.Encoding.PCM_SIGNED || format.getSampleSizeInBits() != 16) {
+            try {
+                stream.close();
+            } catch (IOException ignored) {
+                // Файл все равно отклоняется; ошибка закрытия не важнее причины отказа
+            }
+            throw new IllegalArgumentException("Поддерживается только 16-битный PCM: " + format);
+        }
+        int channels = format.getChannels();
+        boolean bigEndian = format.isBigEndian();
+
+        return new Source() {
+            private byte[] buffer;
+            private boolean finished;
+
+            @Override
+            public boolean read(double[] frame) {
+                if (finished) return false;
+                int frameBytes = frame.length * channels * 2;
+                if (buffer == null || buffer.length != frameBytes) buffer = new byte[frameBytes];
+
+                int filled = 0;
+                try {
+                    while (filled < frameBytes) {
+                        int n = stream.read(buffer, filled, frameBytes - filled);
+                        if (n < 0) break;
+                        filled += n;
+                    }
+                    if (filled < frameBytes) {
+                        finished = true;
+                        stream.close();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (filled == 0) return false;
+
+                int samples = filled / (channels * 2);
+                for (int i = 0; i < samples; i++) {
+                    double sum = 0;
+                    for (int c = 0; c < channels; c++) {
+                        int idx = (i * channels + c) * 2;
+                        int lo = buffer[bigEndian ? idx + 1 : idx] & 0xFF;
+                        int hi = buffer[bigEndian ? idx : idx + 1];
+                        sum += (short) ((hi << 8) | lo) / 32768.0;
+                    }
+                    frame[i] = sum / channels;
+                }
+                Arrays.fill(frame, samples, frame.length, 0.0);
+                return true;
+            }
+        };
+    }
+
+    // ---- Стадии ----
+
+    public static double[] hannWindow(int size) {
+        double[] window = new double[size];
+        for (int i = 0; i < size; i++) {
+            window[i] = 0.5 - 0.5 * Math.cos(2 * Math.PI * i / size);
+        }
+        return window;
+    }
+
+    public static Processor window(double[] window) {
+        return (in, out) -> {
+            for (int i = 0; i < window.length; i++) out.re[i] = in.re[i] * window[i];
+        };
+    }
+
+    public static Processor fft(int frameSize) {
+        DspWorkspace ws = new DspWorkspace(frameSize);
+        return (in, out) -> ws.fft(in.re, out.re, out.im);
+    }
+
+    public static Processor ifft(int frameSize) {
+        DspWorkspace ws = new DspWorkspace(frameSize);
+        return (in, out) -> {
+            ws.ifft(in.re, in.im, out.re);
+            Arrays.fill(out.im, 0.0);
+        };
+    }
+
+    // Спектральная операция: амплитуда в re, фаза в im
+    public static Processor magnitudePhase() {
+        return (in, out) -> SpectralKernels.analyze(in.re, in.im, in.re.length, out.re, null, null, out.im);
+    }
+
+    // Потоковая свертка с ядром методом перекрытия со сложением поверх convolutionFFT:
+    // хвост свертки каждого кадра переносится в начало следующего
+    public static Processor convolution(double[] kernel, int frameSize) {
+        int size = 1;
+        while (size < frameSize + kernel.length - 1) size *= 2;
+        DspWorkspace ws = new DspWorkspace(size);
+        double[] result = new double[frameSize + kernel.length - 1];
+        double[] tail = new double[Math.max(0, kernel.length - 1)];
+        return (in, out) -> {
+            ws.convolution(in.re, kernel, result);
+            for (int i = 0; i < frameSize; i++) {
+                out.re[i] = result[i] + (i < tail.length ? tail[i] : 0.0);
+            }
+            for (int i = 0; i < tail.length; i++) {
+                double carried = i + frameSize < tail.length ? tail[i + frameSize] : 0.0;
+                tail[i] = result[frameSize + i] + carried;
+            }
+        };
+    }
+
+    // ---- Кольцевой буфер кадров (один писатель, один читатель) ----
+
+    static class FrameRing {
+        private final Frame[] slots;
+        private final int mask;
+        // Индекс следующего кадра для чтения пишет только читатель, для записи - только писатель
+        private final AtomicLong head = new AtomicLong();
+        private final AtomicLong tail = new AtomicLong();
+
+        FrameRing(int capacity, int frameSize) {
+            slots = new Frame[capacity];
+            for (int i = 0; i < capacity; i++) slots[i] = new Frame(frameSize);
+            mask = capacity - 1;
+        }
+
+        // Свободный кадр для записи или null, если очередь заполнена
+        Frame claim() {
+            long t = tail.get();
+            if (t - head.get() == slots.length) return null;
+            return slots[(int) (t & mask)];
+        }
+
+        void publish() {
+            tail.lazySet(tail.get() + 1);
+        }
+
+        // Очередной готовый кадр или null, если очередь пуста
+        Frame peek() {
+            long h = head.get();
+            if (h == tail.get()) return null;
+            return slots[(int) (h & mask)];
+        }
+
+        void release() {
+            head.lazySet(head.get() + 1);
+        }
+
+        int size() {
+            return (int) (tail.get() - head.get());
+        }
+    }
+
+    private abstract class StageThread extends Thread {
+        final FrameRing input;
+        final FrameRing output;
+        final AtomicLong frames = new AtomicLong();
+        final AtomicLong busyNanos = new AtomicLong();
+        private volatile long startNanos;
+        private volatile long endNanos;
+
+        StageThread(String name, FrameRing input, FrameRing output) {
+            super(name);
+            this.input = input;
+            this.output = output;
+            setDaemon(true);
+        }
+
+        // Обработка одного кадра; false у источника означает конец потока
+        abstract boolean step(Frame in, Frame out);
+
+        long elapsedNanos() {
+            long start = startNanos;
+            if (start == 0) return 0;
+            long end = endNanos;
+            return (end == 0 ? System.nanoTime() : end) - start;
+        }
+
+        @Override
+        public void run() {
+            startNanos = System.nanoTime();
+            try {
+                long sequence = 0;
+                while (failure == null) {
+                    Frame in = input == null ? null : awaitInput();
+                    if (input != null && in == null) break;
+                    Frame out = output == null ? null : awaitOutput();
+                    if (output != null && out == null) break;
+
+                    boolean endOfStream = in != null && in.endOfStream;
+                    if (!endOfStream) {
+                        long begin = System.nanoTime();
+                        endOfStream = !step(in, out);
+                        busyNanos.lazySet(busyNanos.get() + System.nanoTime() - begin);
+                        if (!endOfStream) frames.lazySet(frames.get() + 1);
+                    }
+                    if (out != null) {
+                        out.endOfStream = endOfStream;
+                        out.sequence = in != null ? in.sequence : sequence++;
+                        output.publish();
+                    }
+                    if (in != null) input.release();
+                    if (endOfStream) break;
+                }
+            } catch (Throwable e) {
+                failure = e;
+            } finally {
+                endNanos = System.nanoTime();
+            }
+        }
+
+        private Frame awaitInput() {
+            int spins = 0;
+            Frame frame;
+            while ((frame = input.peek()) == null) {
+                if (failure != null) return null;
+                spins = idle(spins);
+            }
+            return frame;
+        }
+
+        private Frame awaitOutput() {
+            int spins = 0;
+            Frame frame;
+            while ((frame = output.claim()) == null) {
+                if (failure != null) return null;
+                spins = idle(spins);
+            }
+            return frame;
+        }
+
+        private int idle(int spins) {
+            if (spins < SPINS_BEFORE_PARK) {
+                Thread.onSpinWait();
+                return spins + 1;
+            }
+            int doublings = Math.min(spins - SPINS_BEFORE_PARK, 16);
+            LockSupport.parkNanos(Math.min(MIN_PARK_NANOS << doublings, MAX_PARK_NANOS));
+            return spins + 1;
+        }
+    }
+}
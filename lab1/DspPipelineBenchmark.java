@@ -0,0 +1,48 @@
+package org.example;
+
+import java.io.File;
+
+// Прогон конвейера источник -> окно -> БПФ -> амплитуда/фаза -> приемник без живого звука.
+// Без аргументов используется синтетический сигнал x(t), иначе - WAV-файл из первого аргумента.
+public class DspPipelineBenchmark {
+    private static final int FRAME_SIZE = 1024;
+    private static final int QUEUE_CAPACITY = 16;
+    private static final long FRAMES = 200_000;
+
+    public static void main(String[] args) throws InterruptedException {
+        DspPipeline.Source source;
+        if (args.length > 0) {
+            source = DspPipeline.wavSource(new File(args[0]));
+        } else {
+            SignalProcessingLab lab = new SignalProcessingLab();
+            double[] signal = lab.generateSignal(new double[]{1.0, 0.8, 0.5}, 65.0, new int[]{1, 2, 3}, 0.0, 44100);
+            source = DspPipeline.signalSource(signal, FRAMES);
+        }
+
+        double[] peak = new double[1];
+        DspPipeline pipeline = new DspPipeline(FRAME_SIZE, QUEUE_CAPACITY, source)
+                .addStage("window", DspPipeline.window(DspPipeline.hannWindow(FRAME_SIZE)))
+                .addStage("fft", DspPipeline.fft(FRAME_SIZE))
+                .addStage("spectrum", DspPipeline.magnitudePhase());
+
+        long start = System.nanoTime();
+        pipeline.start(frame -> {
+            for (int i = 1; i < FRAME_SIZE / 2; i++) peak[0] = Math.max(peak[0], frame.re[i]);
+        });
+
+        while (pipeline.isRunning()) {
+            Thread.sleep(500);
+            printStats(pipeline);
+        }
+        pipeline.awaitCompletion();
+        long elapsed = System.nanoTime() - start;
+
+        printStats(pipeline);
+        System.out.printf("Итого: %.2f с, пиковая амплитуда %.3f%n", elapsed / 1e9, peak[0]);
+    }
+
+    private static void printStats(DspPipeline pipeline) {
+        for (DspPipeline.StageStats stats : pipeline.stats()) System.out.println(stats);
+        System.out.println();
+    }
+}
@@ -0,0 +1,302 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+// Рабочее пространство БПФ фиксированного размера для покадровой обработки.
+// Таблицы поворотных множителей, перестановка бит и промежуточные буферы
+// создаются один раз в конструкторе, поэтому ниже SIX_STEP_THRESHOLD все методы
+// работают без выделения памяти. Спектр хранится в раздельных массивах re/im.
+//
+// Начиная с SIX_STEP_THRESHOLD точек массивы не помещаются в кэш, и проходы
+// radix-2 с большим шагом упираются в промахи кэша и TLB. Тогда используется
+// шестиэтапный алгоритм Bailey: N = R·C, сигнал - матрица R x C, и вместо
+// log2(N) проходов по всему массиву выполняются короткие БПФ длины R и C по
+// непрерывным строкам, умножение на поворотные множители и три блочных транспонирования.
+// Строки в этом режиме обрабатываются параллельными потоками, как в Fft2D, и сами
+// потоки выделяют служебные объекты; ifft и свертка при первом вызове выделяют буферы.
+// Преобразование пишет в общий буфер транспонирования, поэтому один экземпляр нельзя
+// использовать из нескольких потоков одновременно (см. isThreadSafe).
+public class DspWorkspace {
+    public static final int SIX_STEP_THRESHOLD = 1 << 21;
+    private static final int BLOCK = 32;
+
+    private final int size;
+    private final double[] cos;
+    private final double[] sin;
+    private final int[] bitReverse;
+
+    // Шестиэтапный режим: БПФ строк длины rows и columns, множители W_N^m
+    // в виде произведения W_N^(hi·columns)·W_N^lo, транспонированная копия данных
+    private final int rows;
+    private final int columns;
+    private final DspWorkspace rowWorkspace;
+    private final DspWorkspace columnWorkspace;
+    private final double[] twiddleHighRe;
+    private final double[] twiddleHighIm;
+    private final double[] twiddleLowRe;
+    private final double[] twiddleLowIm;
+    private final double[] transposedRe;
+    private final double[] transposedIm;
+
+    // Промежуточные спектры для ifft, свертки и корреляции. В шестиэтапном режиме каждая
+    // пара - еще 2N чисел (2 ГиБ при 2^27), поэтому там они выделяются при первом
+    // использовании: aRe/aIm - в ifft, bRe/bIm - только в свертке и корреляции
+    private double[] aRe;
+    private double[] aIm;
+    private double[] bRe;
+    private double[] bIm;
+
+    public DspWorkspace(int size) {
+        if (size < 1 || (size & (size - 1)) != 0) {
+            throw new IllegalArgumentException("N должно быть степенью двойки: N=" + size);
+        }
+        this.size = size;
+
+        if (size >= SIX_STEP_THRESHOLD) {
+            int bits = Integer.numberOfTrailingZeros(size);
+            rows = 1 << (bits / 2);
+            columns = size / rows;
+            rowWorkspace = new DspWorkspace(rows);
+            columnWorkspace = new DspWorkspace(columns);
+            twiddleHighRe = new double[rows];
+            twiddleHighIm = new double[rows];
+            for (int hi = 0; hi < rows; hi++) {
+                twiddleHighRe[hi] = Math.cos(2 * Math.PI * hi / rows);
+                twiddleHighIm[hi] = -Math.sin(2 * Math.PI * hi / rows);
+            }
+            twiddleLowRe = new double[columns];
+            twiddleLowIm = new double[columns];
+            for (int lo = 0; lo < columns; lo++) {
+                twiddleLowRe[lo] = Math.cos(2 * Math.PI * lo / size);
+                twiddleLowIm[lo] = -Math.sin(2 * Math.PI * lo / size);
+            }
+            transposedRe = new double[size];
+            transposedIm = new double[size];
+            // Таблицы radix-2 на весь размер в этом режиме не нужны
+            cos = sin = null;
+            bitReverse = null;
+        } else {
+            rows = columns = 0;
+            rowWorkspace = columnWorkspace = null;
+            twiddleHighRe = twiddleHighIm = twiddleLowRe = twiddleLowIm = null;
+            transposedRe = transposedIm = null;
+
+            cos = new double[Math.max(1, size / 2)];
+            sin = new double[Math.max(1, size / 2)];
+            for (int k = 0; k < size / 2; k++) {
+                cos[k] = Math.cos(2 * Math.PI * k / size);
+                sin[k] = -Math.sin(2 * Math.PI * k / size);
+            }
+
+            bitReverse = new int[size];
+            int bits = Integer.numberOfTrailingZeros(size);
+            for (int i = 0; i < size; i++) {
+                bitReverse[i] = bits == 0 ? 0 : Integer.reverse(i) >>> (32 - bits);
+            }
+        }
+
+        if (rowWorkspace == null) {
+            allocateScratch(true);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Можно ли вызывать transform для разных отрезков одновременно из нескольких потоков
+    public boolean isThreadSafe() {
+        return rowWorkspace == null;
+    }
+
+    // Прямое БПФ вещественного сигнала (дополняется нулями до size)
+    public void fft(double[] signal, double[] re, double[] im) {
+        checkLength(re.length);
+        checkLength(im.length);
+        if (signal.length > size) {
+            throw new IllegalArgumentException("Сигнал длиннее рабочего пространства: " + signal.length + " > " + size);
+        }
+        System.arraycopy(signal, 0, re, 0, signal.length);
+        Arrays.fill(re, signal.length, size, 0.0);
+        Arrays.fill(im, 0.0);
+        transform(re, im, false);
+    }
+
+    // Обратное БПФ; вещественная часть результата с нормировкой 1/N пишется в output,
+    // входной спектр при этом не изменяется
+    public void ifft(double[] re, double[] im, double[] output) {
+        checkLength(re.length);
+        checkLength(im.length);
+        checkLength(output.length);
+        allocateScratch(false);
+        System.arraycopy(re, 0, aRe, 0, size);
+        System.arraycopy(im, 0, aIm, 0, size);
+        transform(aRe, aIm, true);
+        for (int i = 0; i < size; i++) {
+            output[i] = aRe[i] / size;
+        }
+    }
+
+    // БПФ на месте без нормировки (обратное - с сопряженными множителями)
+    public void transform(double[] re, double[] im, boolean inverse) {
+        transform(re, im, 0, inverse);
+    }
+
+    // То же для отрезка [offset, offset + size) - например, строки изображения.
+    // Ниже SIX_STEP_THRESHOLD использует только неизменяемые таблицы, поэтому безопасно
+    // из нескольких потоков; шестиэтапный режим пишет в общий буфер транспонирования
+    // и требует внешней синхронизации.
+    public void transform(double[] re, double[] im, int offset, boolean inverse) {
+        if (rowWorkspace != null) {
+            sixStep(re, im, offset, inverse);
+            return;
+        }
+        for (int i = 0; i < size; i++) {
+            int j = bitReverse[i];
+            if (j > i) {
+                int a = offset + i, b = offset + j;
+                double t = re[a]; re[a] = re[b]; re[b] = t;
+                t = im[a]; im[a] = im[b]; im[b] = t;
+            }
+        }
+
+        double sign = inverse ? -1.0 : 1.0;
+        for (int len = 2; len <= size; len <<= 1) {
+            int half = len >> 1;
+            int step = size / len;
+            for (int start = offset; start < offset + size; start += len) {
+                for (int k = 0; k < half; k++) {
+                    double wr = cos[k * step];
+                    double wi = sign * sin[k * step];
+                    int p = start + k;
+                    int q = p + half;
+                    double tr = wr * re[q] - wi * im[q];
+                    double ti = wr * im[q] + wi * re[q];
+                    re[q] = re[p] - tr;
+                    im[q] = im[p] - ti;
+                    re[p] += tr;
+                    im[p] += ti;
+                }
+            }
+        }
+    }
+
+    // X[k1 + R·k2] = Σ_c W_C^(c·k2) · W_N^(c·k1) · Σ_r x[r·C + c] · W_R^(r·k1)
+    private void sixStep(double[] re, double[] im, int offset, boolean inverse) {
+        // 1. Столбцы матрицы R x C становятся непрерывными строками длины R
+        transpose(re, im, offset, transposedRe, transposedIm, 0, rows, columns);
+
+        // 2-3. БПФ длины R по каждой из C строк и сразу, пока строка в кэше, множители W_N^(c·k1)
+        double sign = inverse ? -1.0 : 1.0;
+        int lowBits = Integer.numberOfTrailingZeros(columns);
+        IntStream.range(0, columns).parallel().forEach(c -> {
+            int start = c * rows;
+            rowWorkspace.transform(transposedRe, transposedIm, start, inverse);
+            int m = 0;
+            for (int k = 1; k < rows; k++) {
+                m += c;
+                int hi = m >>> lowBits;
+                int lo = m & (columns - 1);
+                double wr = twiddleHighRe[hi] * twiddleLowRe[lo] - twiddleHighIm[hi] * twiddleLowIm[lo];
+                double wi = sign * (twiddleHighRe[hi] * twiddleLowIm[lo] + twiddleHighIm[hi] * twiddleLowRe[lo]);
+                int p = start + k;
+                double r = transposedRe[p] * wr - transposedIm[p] * wi;
+                transposedIm[p] = transposedRe[p] * wi + transposedIm[p] * wr;
+                transposedRe[p] = r;
+            }
+        });
+
+        // 4-5. Обратно в R x C и БПФ длины C по строкам
+        transpose(transposedRe, transposedIm, 0, re, im, offset, columns, rows);
+        IntStream.range(0, rows).parallel()
+                .forEach(k1 -> columnWorkspace.transform(re, im, offset + k1 * columns, inverse));
+
+        // 6. Элемент (k1, k2) - это X[k1 + R·k2]: транспонирование дает естественный порядок
+        transpose(re, im, offset, transposedRe, transposedIm, 0, rows, columns);
+        System.arraycopy(transposedRe, 0, re, offset, size);
+        System.arraycopy(transposedIm, 0, im, offset, size);
+    }
+
+    // Транспонирование матрицы rows x columns блоками BLOCK x BLOCK,
+    // чтобы и чтение, и запись оставались в пределах нескольких строк кэша
+    static void transpose(double[] srcRe, double[] srcIm, int srcOffset,
+                          double[] dstRe, double[] dstIm, int dstOffset, int rows, int columns) {
+        int blockRows = (rows + BLOCK - 1) / BLOCK;
+        IntStream.range(0, blockRows).parallel().forEach(blockRow -> {
+            int r0 = blockRow * BLOCK;
+            int r1 = Math.min(r0 + BLOCK, rows);
+            for (int c0 = 0; c0 < columns; c0 += BLOCK) {
+                int c1 = Math.min(c0 + BLOCK, columns);
+                for (int r = r0; r < r1; r++) {
+                    for (int c = c0; c < c1; c++) {
+                        dstRe[dstOffset + c * rows + r] = srcRe[srcOffset + r * columns + c];
+                        dstIm[dstOffset + c * rows + r] = srcIm[srcOffset + r * columns + c];
+                    }
+                }
+            }
+        });
+    }
+
+    // Линейная свертка через БПФ: a.length + b.length - 1 <= size,
+    // в output записываются первые a.length + b.length - 1 отсчетов
+    public void convolution(double[] a, double[] b, double[] output) {
+        spectraOf(a, b, output.length);
+        for (int i = 0; i < size; i++) {
+            double re = aRe[i] * bRe[i] - aIm[i] * bIm[i];
+            double im = aRe[i] * bIm[i] + aIm[i] * bRe[i];
+            aRe[i] = re;
+            aIm[i] = im;
+        }
+        inverseInto(a.length + b.length - 1, output);
+    }
+
+    // Корреляция через БПФ (сопряженный спектр a на спектр b)
+    public void correlation(double[] a, double[] b, double[] output) {
+        spectraOf(a, b, output.length);
+        for (int i = 0; i < size; i++) {
+            double re = aRe[i] * bRe[i] + aIm[i] * bIm[i];
+            double im = aRe[i] * bIm[i] - aIm[i] * bRe[i];
+            aRe[i] = re;
+            aIm[i] = im;
+        }
+        inverseInto(a.length + b.length - 1, output);
+    }
+
+    private void spectraOf(double[] a, double[] b, int outputLength) {
+        int resultSize = a.length + b.length - 1;
+        if (resultSize > size) {
+            throw new IllegalArgumentException("Результат не помещается в рабочее пространство: " + resultSize + " > " + size);
+        }
+        if (outputLength < resultSize) {
+            throw new IllegalArgumentException("Выходной буфер слишком мал: " + outputLength + " < " + resultSize);
+        }
+        allocateScratch(true);
+        fft(a, aRe, aIm);
+        fft(b, bRe, bIm);
+    }
+
+    private void allocateScratch(boolean convolution) {
+        if (aRe == null) {
+            aRe = new double[size];
+            aIm = new double[size];
+        }
+        if (convolution && bRe == null) {
+            bRe = new double[size];
+            bIm = new double[size];
+        }
+    }
+
+    private void inverseInto(int length, double[] output) {
+        transform(aRe, aIm, true);
+        for (int i = 0; i < length; i++) {
+            output[i] = aRe[i] / size;
+        }
+    }
+
+    private void checkLength(int length) {
+        if (length < size) {
+            throw new IllegalArgumentException("Буфер меньше размера БПФ: " + length + " < " + size);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.example;
+
+import java.lang.management.ManagementFactory;
+
+// Замер покадрового цикла БПФ -> амплитуда/фаза -> ОБПФ на DspWorkspace.
+// После прогрева цикл не должен выделять память в куче; иначе бросается исключение.
+public class DspWorkspaceBenchmark {
+    private static final int SAMPLE_RATE = 44100;
+    private static final int FRAME_SIZE = 1024;
+    private static final int WARMUP_FRAMES = 20_000;
+    private static final int FRAMES = 10_000;
+
+    public static void main(String[] args) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        DspWorkspace ws = new DspWorkspace(FRAME_SIZE);
+        double[] frame = new double[FRAME_SIZE];
+        double[] re = new double[FRAME_SIZE];
+        double[] im = new double[FRAME_SIZE];
+        double[] amps = new double[FRAME_SIZE];
+        double[] phases = new double[FRAME_SIZE];
+        double[] restored = new double[FRAME_SIZE];
+
+        double checksum = runFrames(ws, frame, re, im, amps, phases, restored, WARMUP_FRAMES);
+
+        long threadId = Thread.currentThread().getId();
+        long overhead = -threads.getThreadAllocatedBytes(threadId) + threads.getThreadAllocatedBytes(threadId);
+        long before = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        checksum += runFrames(ws, frame, re, im, amps, phases, restored, FRAMES);
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before - overhead;
+
+        System.out.printf("Кадров: %d, N=%d, %.2f мкс/кадр, выделено байт: %d (контроль %.3f)%n",
+                FRAMES, FRAME_SIZE, elapsed / 1000.0 / FRAMES, allocated, checksum);
+        if (allocated > 0) {
+            throw new IllegalStateException("Цикл обработки кадров выделил " + allocated + " байт");
+        }
+    }
+
+    private static double runFrames(DspWorkspace ws, double[] frame, double[] re, double[] im,
+                                    double[] amps, double[] phases, double[] restored, int count) {
+        double checksum = 0;
+        for (int n = 0; n < count; n++) {
+            double f0 = 65.0 + (n % 100);
+            for (int i = 0; i < frame.length; i++) {
+                frame[i] = Math.sin(2 * Math.PI * f0 * i / SAMPLE_RATE);
+            }
+            ws.fft(frame, re, im);
+            SpectralKernels.analyze(re, im, amps.length, amps, null, null, phases);
+            ws.ifft(re, im, restored);
+            checksum += amps[1] + phases[1] + restored[1];
+        }
+        return checksum;
+    }
+}
@@ -0,0 +1,206 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+// Двумерное БПФ по строкам и столбцам поверх одномерного DspWorkspace.
+// Изображение хранится построчно в массивах re/im длины width * height.
+// Строки преобразуются параллельно, затем блочное транспонирование превращает
+// столбцы в непрерывные строки, и после второго прохода данные транспонируются обратно.
+// Сторона от DspWorkspace.SIX_STEP_THRESHOLD обрабатывается последовательно: ее БПФ
+// шестиэтапное, уже параллельное внутри и с общим буфером.
+public class Fft2D {
+    private final int width;
+    private final int height;
+    private final DspWorkspace rowWorkspace;
+    private final DspWorkspace columnWorkspace;
+    private final double[] transposedRe;
+    private final double[] transposedIm;
+
+    public Fft2D(int width, int height) {
+        this.width = width;
+        this.height = height;
+        this.rowWorkspace = new DspWorkspace(width);
+        this.columnWorkspace = new DspWorkspace(height);
+        this.transposedRe = new double[width * height];
+        this.transposedIm = new double[width * height];
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int height() {
+        return height;
+    }
+
+    // Двумерное БПФ на месте без нормировки
+    public void transform(double[] re, double[] im, boolean inverse) {
+        lines(height, rowWorkspace)
+                .forEach(row -> rowWorkspace.transform(re, im, row * width, inverse));
+        DspWorkspace.transpose(re, im, 0, transposedRe, transposedIm, 0, height, width);
+        lines(width, columnWorkspace)
+                .forEach(column -> columnWorkspace.transform(transposedRe, transposedIm, column * height, inverse));
+        DspWorkspace.transpose(transposedRe, transposedIm, 0, re, im, 0, width, height);
+    }
+
+    // Прямое БПФ, спектр остается транспонированным в transposedRe/Im. Поэлементному
+    // умножению спектров порядок бинов не важен, и пара spectrumTransposed/inverseTransposed
+    // обходится двумя транспонированиями вместо четырех.
+    private void spectrumTransposed(double[] re, double[] im) {
+        lines(height, rowWorkspace)
+                .forEach(row -> rowWorkspace.transform(re, im, row * width, false));
+        DspWorkspace.transpose(re, im, 0, transposedRe, transposedIm, 0, height, width);
+        lines(width, columnWorkspace)
+                .forEach(column -> columnWorkspace.transform(transposedRe, transposedIm, column * height, false));
+    }
+
+    // Обратное БПФ спектра из transposedRe/Im в re/im без нормировки
+    private void inverseTransposed(double[] re, double[] im) {
+        lines(width, columnWorkspace)
+                .forEach(column -> columnWorkspace.transform(transposedRe, transposedIm, column * height, true));
+        DspWorkspace.transpose(transposedRe, transposedIm, 0, re, im, 0, width, height);
+        lines(height, rowWorkspace)
+                .forEach(row -> rowWorkspace.transform(re, im, row * width, true));
+    }
+
+    // Прямое БПФ вещественного изображения
+    public void fft(double[] image, double[] re, double[] im) {
+        System.arraycopy(image, 0, re, 0, width * height);
+        Arrays.fill(im, 0, width * height, 0.0);
+        transform(re, im, false);
+    }
+
+    // Обратное БПФ на месте; в re остается вещественная часть с нормировкой 1/(width·height)
+    public void ifft(double[] re, double[] im) {
+        transform(re, im, true);
+        double scale = 1.0 / (width * height);
+        for (int i = 0; i < width * height; i++) re[i] *= scale;
+    }
+
+    // Свертка изображения с ядром через двумерное БПФ. Результат имеет размер
+    // изображения: ядро центрировано, за краями изображения - нули.
+    public static double[] convolution(double[] image, int width, int height,
+                                       double[] kernel, int kernelWidth, int kernelHeight) {
+        return overlapAdd(image, width, height, kernel, kernelWidth, kernelHeight,
+                kernelWidth / 2, kernelHeight / 2);
+    }
+
+    // Взаимная корреляция шаблона с изображением (поиск шаблона): элемент (x, y) -
+    // сумма произведений шаблона, приложенного левым верхним углом к пикселю (x, y).
+    // Считается как свертка с отраженным шаблоном.
+    public static double[] correlation(double[] image, int width, int height,
+                                       double[] template, int templateWidth, int templateHeight) {
+        double[] flipped = new double[templateWidth * templateHeight];
+        for (int i = 0; i < flipped.length; i++) flipped[i] = template[flipped.length - 1 - i];
+        return overlapAdd(image, width, height, flipped, templateWidth, templateHeight,
+                templateWidth - 1, templateHeight - 1);
+    }
+
+    // Свертка методом перекрытия со сложением: изображение режется на блоки, каждый блок
+    // с ядром помещается в БПФ размера tileWidth x tileHeight, выбранного по стоимости
+    // (а не одно БПФ на все изображение, дополненное до степени двойки - для 1024² с ядром
+    // 63² это 2048², в 4 раза больше площади). Изображение и ядро вещественные, поэтому
+    // два блока упаковываются в re и im одного комплексного БПФ: спектр ядра - спектр
+    // вещественного сигнала, и после обратного БПФ re и im содержат свертки каждого блока.
+    // Элемент (x, y) результата - элемент (x + x0, y + y0) полной линейной свертки.
+    private static double[] overlapAdd(double[] image, int width, int height,
+                                       double[] kernel, int kernelWidth, int kernelHeight, int x0, int y0) {
+        int tileWidth = tileSize(width, kernelWidth);
+        int tileHeight = tileSize(height, kernelHeight);
+        int blockWidth = tileWidth - kernelWidth + 1;
+        int blockHeight = tileHeight - kernelHeight + 1;
+        int tilesX = (width + blockWidth - 1) / blockWidth;
+        int tiles = tilesX * ((height + blockHeight - 1) / blockHeight);
+        int size = tileWidth * tileHeight;
+
+        Fft2D fft = new Fft2D(tileWidth, tileHeight);
+        double[] kernelRe = new double[size];
+        double[] kernelIm = new double[size];
+        copyBlock(kernel, kernelWidth, 0, 0, kernelWidth, kernelHeight, kernelRe, tileWidth);
+        fft.spectrumTransposed(kernelRe, kernelIm);
+        System.arraycopy(fft.transposedRe, 0, kernelRe, 0, size);
+        System.arraycopy(fft.transposedIm, 0, kernelIm, 0, size);
+
+        double[] re = new double[size];
+        double[] im = new double[size];
+        double[] result = new double[width * height];
+        double scale = 1.0 / size;
+        for (int tile = 0; tile < tiles; tile += 2) {
+            Arrays.fill(re, 0.0);
+            Arrays.fill(im, 0.0);
+            int ax = tile % tilesX * blockWidth, ay = tile / tilesX * blockHeight;
+            copyBlock(image, width, ax, ay, Math.min(blockWidth, width - ax), Math.min(blockHeight, height - ay),
+                    re, tileWidth);
+            boolean pair = tile + 1 < tiles;
+            int bx = (tile + 1) % tilesX * blockWidth, by = (tile + 1) / tilesX * blockHeight;
+            if (pair) {
+                copyBlock(image, width, bx, by, Math.min(blockWidth, width - bx), Math.min(blockHeight, height - by),
+                        im, tileWidth);
+            }
+
+            fft.spectrumTransposed(re, im);
+            double[] spectrumRe = fft.transposedRe, spectrumIm = fft.transposedIm;
+            for (int i = 0; i < size; i++) {
+                double r = spectrumRe[i] * kernelRe[i] - spectrumIm[i] * kernelIm[i];
+                spectrumIm[i] = spectrumRe[i] * kernelIm[i] + spectrumIm[i] * kernelRe[i];
+                spectrumRe[i] = r;
+            }
+            fft.inverseTransposed(re, im);
+
+            accumulate(re, tileWidth, tileHeight, scale, result, width, height, ax - x0, ay - y0);
+            if (pair) accumulate(im, tileWidth, tileHeight, scale, result, width, height, bx - x0, by - y0);
+        }
+        return result;
+    }
+
+    // Размер БПФ по одной оси с наименьшей стоимостью блоков: число блоков · T·log2(T)
+    private static int tileSize(int length, int kernelLength) {
+        int best = nextPowerOfTwo(length + kernelLength - 1);
+        double bestCost = Double.MAX_VALUE;
+        for (int size = nextPowerOfTwo(kernelLength); size <= nextPowerOfTwo(length + kernelLength - 1); size <<= 1) {
+            int block = size - kernelLength + 1;
+            if (block < 1) continue;
+            double cost = (double) ((length + block - 1) / block) * size * Math.max(1, Integer.numberOfTrailingZeros(size));
+            if (cost < bestCost) {
+                bestCost = cost;
+                best = size;
+            }
+        }
+        return best;
+    }
+
+    private static void copyBlock(double[] data, int dataWidth, int x, int y, int width, int height,
+                                  double[] tile, int tileWidth) {
+        for (int row = 0; row < height; row++) {
+            System.arraycopy(data, (y + row) * dataWidth + x, tile, row * tileWidth, width);
+        }
+    }
+
+    // Прибавление свертки блока к результату; (x, y) - положение начала блока в результате
+    private static void accumulate(double[] tile, int tileWidth, int tileHeight, double scale,
+                                   double[] result, int width, int height, int x, int y) {
+        int fromRow = Math.max(0, -y), toRow = Math.min(tileHeight, height - y);
+        int fromColumn = Math.max(0, -x), toColumn = Math.min(tileWidth, width - x);
+        for (int row = fromRow; row < toRow; row++) {
+            int src = row * tileWidth;
+            int dst = (y + row) * width + x;
+            for (int column = fromColumn; column < toColumn; column++) {
+                result[dst + column] += tile[src + column] * scale;
+            }
+        }
+    }
+
+    private static IntStream lines(int count, DspWorkspace workspace) {
+        IntStream lines = IntStream.range(0, count);
+        return workspace.isThreadSafe() ? lines.parallel() : lines;
+    }
+
+    private static int nextPowerOfTwo(int n) {
+        int power = 1;
+        while (power < n) {
+            power <<= 1;
+        }
+        return power;
+    }
+}
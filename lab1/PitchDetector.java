@@ -0,0 +1,176 @@
+package org.example;
+
+import java.util.Arrays;
+
+// Покадровое определение основной частоты по алгоритму YIN.
+// Разностная функция d(τ) = Σ (x[j] - x[j + τ])², j < window, раскладывается в
+// e(0) + e(τ) - 2·r(τ): энергии берутся из префиксных сумм квадратов, а взаимная
+// корреляция r(τ) - через БПФ (сопряженный спектр окна на спектр кадра), как в correlationFFT.
+// Далее - нормировка накопленным средним, абсолютный порог и параболическое уточнение.
+// Все буферы создаются в конструкторе; detect и process память не выделяют.
+public class PitchDetector {
+    public static final double DEFAULT_THRESHOLD = 0.1;
+
+    private final int sampleRate;
+    private final int window;
+    private final int minLag;
+    private final int maxLag;
+    private final double threshold;
+    private final DspWorkspace ws;
+
+    private final double[] head;
+    private final double[] headRe;
+    private final double[] headIm;
+    private final double[] frameRe;
+    private final double[] frameIm;
+    private final double[] correlation;
+    private final double[] squares;
+    private final double[] cmnd;
+
+    // Скользящий буфер потокового режима
+    private final int hop;
+    private final double[] history;
+    private int filled;
+
+    private double confidence;
+
+    public PitchDetector(int sampleRate, int window, double minFrequency, double maxFrequency, int hop) {
+        this(sampleRate, window, minFrequency, maxFrequency, hop, DEFAULT_THRESHOLD);
+    }
+
+    public PitchDetector(int sampleRate, int window, double minFrequency, double maxFrequency,
+                         int hop, double threshold) {
+        if (minFrequency <= 0 || maxFrequency <= minFrequency || maxFrequency >= sampleRate / 2.0) {
+            throw new IllegalArgumentException("Неверный диапазон частот: " + minFrequency + ".." + maxFrequency);
+        }
+        if (hop < 1 || hop > window) {
+            throw new IllegalArgumentException("Шаг должен быть от 1 до размера окна: " + hop);
+        }
+        this.sampleRate = sampleRate;
+        this.window = window;
+        this.minLag = Math.max(2, (int) Math.floor(sampleRate / maxFrequency));
+        this.maxLag = (int) Math.ceil(sampleRate / minFrequency);
+        this.threshold = threshold;
+        this.hop = hop;
+
+        int size = 1;
+        while (size < window + maxLag + 1) size *= 2;
+        ws = new DspWorkspace(size);
+
+        head = new double[window];
+        headRe = new double[size];
+        headIm = new double[size];
+        frameRe = new double[size];
+        frameIm = new double[size];
+        correlation = new double[size];
+        squares = new double[frameLength() + 1];
+        cmnd = new double[maxLag + 2];
+        history = new double[frameLength()];
+    }
+
+    // Число отсчетов, нужное для одной оценки
+    public int frameLength() {
+        return window + maxLag + 1;
+    }
+
+    // Надежность последней оценки: 1 - d'(τ), где d' - нормированная разностная функция
+    public double confidence() {
+        return confidence;
+    }
+
+    // Основная частота кадра frame[offset .. offset + frameLength()); 0, если тон не найден
+    public double detect(double[] frame, int offset) {
+        int length = frameLength();
+        squares[0] = 0;
+        for (int i = 0; i < length; i++) {
+            double v = frame[offset + i];
+            squares[i + 1] = squares[i] + v * v;
+            frameRe[i] = v;
+        }
+        System.arraycopy(frame, offset, head, 0, window);
+
+        // r(τ) = Σ head[j]·frame[j + τ]: без наложения, т.к. размер БПФ >= window + maxLag
+        ws.fft(head, headRe, headIm);
+        Arrays.fill(frameRe, length, frameRe.length, 0.0);
+        Arrays.fill(frameIm, 0.0);
+        ws.transform(frameRe, frameIm, false);
+        for (int i = 0; i < frameRe.length; i++) {
+            double re = headRe[i] * frameRe[i] + headIm[i] * frameIm[i];
+            double im = headRe[i] * frameIm[i] - headIm[i] * frameRe[i];
+            frameRe[i] = re;
+            frameIm[i] = im;
+        }
+        ws.ifft(frameRe, frameIm, correlation);
+
+        // Нормированная разностная функция d'(τ) = d(τ)·τ / Σ_{j=1..τ} d(j)
+        double energy0 = squares[window];
+        double running = 0;
+        cmnd[0] = 1;
+        for (int tau = 1; tau <= maxLag + 1; tau++) {
+            double energyTau = squares[tau + window] - squares[tau];
+            double d = Math.max(0, energy0 + energyTau - 2 * correlation[tau]);
+            running += d;
+            cmnd[tau] = running == 0 ? 1 : d * tau / running;
+        }
+
+        int best = -1;
+        for (int tau = minLag; tau <= maxLag; tau++) {
+            if (cmnd[tau] < threshold) {
+                while (tau + 1 <= maxLag && cmnd[tau + 1] < cmnd[tau]) tau++;
+                best = tau;
+                break;
+            }
+        }
+        if (best < 0) {
+            confidence = 0;
+            return 0;
+        }
+        confidence = 1 - cmnd[best];
+        return sampleRate / refine(best);
+    }
+
+    // Потоковый режим: оценка каждые hop отсчетов, как только накоплен полный кадр.
+    // Частоты пишутся в pitches с pitchesOffset, надежности - в confidences с confidencesOffset
+    // (если confidences не null). Возвращает число записанных оценок.
+    public int process(double[] input, int offset, int length, double[] pitches, int pitchesOffset,
+                       double[] confidences, int confidencesOffset) {
+        int written = 0;
+        int frame = frameLength();
+        for (int i = offset; i < offset + length; ) {
+            int chunk = Math.min(offset + length - i, frame - filled);
+            System.arraycopy(input, i, history, filled, chunk);
+            filled += chunk;
+            i += chunk;
+
+            if (filled == frame) {
+                pitches[pitchesOffset + written] = detect(history, 0);
+                if (confidences != null) confidences[confidencesOffset + written] = confidence;
+                written++;
+                System.arraycopy(history, hop, history, 0, frame - hop);
+                filled = frame - hop;
+            }
+        }
+        return written;
+    }
+
+    // Сколько оценок может вернуть process на length входных отсчетах
+    public int maxEstimates(int length) {
+        return (filled + length) / hop + 1;
+    }
+
+    public void reset() {
+        filled = 0;
+        confidence = 0;
+    }
+
+    // Вершина параболы через d'(τ - 1), d'(τ), d'(τ + 1)
+    private double refine(int tau) {
+        double left = cmnd[tau - 1];
+        double center = cmnd[tau];
+        double right = cmnd[tau + 1];
+        double denominator = left - 2 * center + right;
+        if (denominator == 0) return tau;
+        double shift = (left - right) / (2 * denominator);
+        return tau + Math.max(-1, Math.min(1, shift));
+    }
+}
@@ -0,0 +1,193 @@
+package org.example;
+
+import java.util.Arrays;
+
+// Полифазный КИХ-фильтр для рационального изменения частоты дискретизации в L/M раз.
+// Эквивалентен convolution(сигнал с L-1 нулями между отсчетами, фильтр) с последующим
+// прореживанием в M раз, но вычисляет только оставляемые отсчеты и пропускает
+// умножения на вставленные нули: на выходной отсчет приходится длина фильтра / L умножений.
+// Длина фильтра растет с max(L, M): при сильной децимации полоса пропускания узкая,
+// и фильтр должен перекрывать столько же периодов выходной частоты, что и при L > M.
+// Работает потоково (process) и пакетно (resample).
+public class PolyphaseResampler {
+    public static final int DEFAULT_TAPS_PER_PHASE = 32;
+    private static final double KAISER_BETA = 8.6;
+    private static final double ROLLOFF = 0.92;
+
+    private final int up;
+    private final int down;
+    private final int tapsPerPhase;
+    private final int center;
+    private final double[][] phases;
+
+    // Линия задержки удвоенной длины: окно history[pos .. pos + tapsPerPhase) всегда непрерывно
+    private final double[] history;
+    private int pos;
+    private int phase;
+    private long inputIndex;
+    private long nextInputIndex;
+
+    public PolyphaseResampler(int inputRate, int outputRate) {
+        this(outputRate / gcd(inputRate, outputRate), inputRate / gcd(inputRate, outputRate),
+                DEFAULT_TAPS_PER_PHASE);
+    }
+
+    // up/down - коэффициенты интерполяции L и децимации M; длина фильтра -
+    // tapsPerPhase·max(L, M), округленная вверх до кратной L
+    public PolyphaseResampler(int up, int down, int tapsPerPhase) {
+        this(up, down, designPrototype(up, down, tapsPerPhase));
+    }
+
+    // prototype - фильтр-прототип на повышенной частоте, его длина должна быть кратна up
+    public PolyphaseResampler(int up, int down, double[] prototype) {
+        if (up < 1 || down < 1) {
+            throw new IllegalArgumentException("L и M должны быть положительными: L=" + up + ", M=" + down);
+        }
+        if (prototype.length % up != 0) {
+            throw new IllegalArgumentException("Длина фильтра " + prototype.length + " не кратна L=" + up);
+        }
+        this.up = up;
+        this.down = down;
+        this.tapsPerPhase = prototype.length / up;
+        this.center = (prototype.length - 1) / 2;
+
+        // Фаза p получает отсчеты h[p], h[p + L], h[p + 2L], ...; усиление L компенсирует вставленные нули
+        phases = new double[up][tapsPerPhase];
+        for (int p = 0; p < up; p++) {
+            for (int k = 0; k < tapsPerPhase; k++) {
+                phases[p][k] = prototype[p + k * up] * up;
+            }
+        }
+        history = new double[2 * tapsPerPhase];
+    }
+
+    private static double[] designPrototype(int up, int down, int tapsPerPhase) {
+        if (up < 1 || down < 1 || tapsPerPhase < 1) {
+            throw new IllegalArgumentException("L, M и число отводов должны быть положительными: L=" + up
+                    + ", M=" + down + ", taps=" + tapsPerPhase);
+        }
+        long rate = Math.max(up, down);
+        long length = ((long) tapsPerPhase * rate + up - 1) / up * up;
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Слишком длинный фильтр для L=" + up + ", M=" + down);
+        }
+        // Нечетная длина дает целую задержку; до кратности L дополняем нулем
+        int taps = (int) (length % 2 == 0 ? length - 1 : length);
+        return Arrays.copyOf(designLowPass(taps, ROLLOFF * 0.5 / rate), (int) length);
+    }
+
+    // Оконный sinc (окно Кайзера) с единичным усилением на нулевой частоте;
+    // cutoff - частота среза в долях частоты дискретизации (0 .. 0.5)
+    public static double[] designLowPass(int taps, double cutoff) {
+        if (cutoff <= 0 || cutoff >= 0.5) {
+            throw new IllegalArgumentException("Частота среза должна быть в (0, 0.5): " + cutoff);
+        }
+        double[] h = new double[taps];
+        double center = (taps - 1) / 2.0;
+        double norm = besselI0(KAISER_BETA);
+        double sum = 0;
+        for (int n = 0; n < taps; n++) {
+            double t = n - center;
+            double sinc = t == 0 ? 2 * cutoff : Math.sin(2 * Math.PI * cutoff * t) / (Math.PI * t);
+            double r = taps == 1 ? 0 : 2.0 * n / (taps - 1) - 1;
+            double window = besselI0(KAISER_BETA * Math.sqrt(Math.max(0, 1 - r * r))) / norm;
+            h[n] = sinc * window;
+            sum += h[n];
+        }
+        for (int n = 0; n < taps; n++) h[n] /= sum;
+        return h;
+    }
+
+    public int interpolation() {
+        return up;
+    }
+
+    public int decimation() {
+        return down;
+    }
+
+    // Групповая задержка фильтра в выходных отсчетах
+    public double delay() {
+        return (double) center / down;
+    }
+
+    // Верхняя граница числа выходных отсчетов для length входных
+    public int maxOutputLength(int length) {
+        return (int) (((long) length * up + down - 1) / down) + 1;
+    }
+
+    public void reset() {
+        Arrays.fill(history, 0.0);
+        pos = 0;
+        phase = 0;
+        inputIndex = 0;
+        nextInputIndex = 0;
+    }
+
+    // Потоковая обработка очередного блока; возвращает число записанных в output отсчетов.
+    // Состояние фильтра сохраняется между вызовами, память не выделяется.
+    public int process(double[] input, int offset, int length, double[] output, int outputOffset) {
+        int written = outputOffset;
+        for (int j = offset; j < offset + length; j++) {
+            pos = pos == 0 ? tapsPerPhase - 1 : pos - 1;
+            history[pos] = input[j];
+            history[pos + tapsPerPhase] = input[j];
+
+            while (nextInputIndex == inputIndex) {
+                double[] h = phases[phase];
+                double sum = 0;
+                for (int k = 0; k < tapsPerPhase; k++) {
+                    sum += h[k] * history[pos + k];
+                }
+                output[written++] = sum;
+
+                phase += down;
+                nextInputIndex += phase / up;
+                phase %= up;
+            }
+            inputIndex++;
+        }
+        return written - outputOffset;
+    }
+
+    // Пакетный режим: весь сигнал целиком, с компенсацией задержки фильтра -
+    // отсчет n результата соответствует моменту n·M/L входного сигнала.
+    // Длина результата - ceil(input.length * L / M).
+    public double[] resample(double[] input) {
+        reset();
+        // Начинаем сразу с центра фильтра, а не отбрасываем первые отсчеты
+        phase = center % up;
+        nextInputIndex = center / up;
+
+        int outputLength = (int) (((long) input.length * up + down - 1) / down);
+        double[] buffer = new double[maxOutputLength(input.length) + maxOutputLength(1)];
+        int produced = process(input, 0, input.length, buffer, 0);
+
+        double[] zero = new double[1];
+        while (produced < outputLength) {
+            produced += process(zero, 0, 1, buffer, produced);
+        }
+        reset();
+        return Arrays.copyOf(buffer, outputLength);
+    }
+
+    private static double besselI0(double x) {
+        double sum = 1, term = 1;
+        double q = x * x / 4;
+        for (int k = 1; k < 50; k++) {
+            term *= q / (k * (double) k);
+            sum += term;
+            if (term < 1e-16 * sum) break;
+        }
+        return sum;
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
@@ -0,0 +1,94 @@
+package org.example;
+
+// Проверка АЧХ PolyphaseResampler для всех пар частот дискретизации лаборатории.
+// Полоса пропускания: тоны до PASSBAND_EDGE от меньшей частоты Найквиста проходят
+// с отклонением не больше PASSBAND_RIPPLE_DB, а продукты зеркалирования остаются ниже
+// STOPBAND_DB. Полоса задерживания (при понижении частоты): тоны выше STOPBAND_EDGE
+// от выходной частоты Найквиста после наложения ослабляются не меньше чем на STOPBAND_DB.
+// Срез фильтра - ROLLOFF (0.92) от меньшей частоты Найквиста, поэтому между
+// PASSBAND_EDGE и STOPBAND_EDGE лежит переходная полоса (например, 3-4.4 кГц при 8 кГц).
+public class PolyphaseResamplerCheck {
+    private static final int[] RATES = {8000, 16000, 44100, 48000, 96000};
+    private static final double PASSBAND_EDGE = 0.75;
+    private static final double STOPBAND_EDGE = 1.1;
+    private static final double PASSBAND_RIPPLE_DB = 0.1;
+    private static final double STOPBAND_DB = -70;
+    private static final double DURATION = 0.25;
+
+    public static void main(String[] args) {
+        int failures = 0;
+        for (int from : RATES) {
+            for (int to : RATES) {
+                if (from != to) failures += check(from, to);
+            }
+        }
+        if (failures > 0) {
+            throw new IllegalStateException("Нарушений АЧХ: " + failures);
+        }
+    }
+
+    private static int check(int from, int to) {
+        PolyphaseResampler resampler = new PolyphaseResampler(from, to);
+        double nyquist = Math.min(from, to) / 2.0;
+        double worstRipple = 0;
+        double worstImage = Double.NEGATIVE_INFINITY;
+        for (double fraction : new double[]{0.05, 0.3, 0.5, PASSBAND_EDGE}) {
+            double[] response = toneResponse(resampler, from, to, fraction * nyquist);
+            worstRipple = Math.max(worstRipple, Math.abs(response[0]));
+            worstImage = Math.max(worstImage, response[1]);
+        }
+
+        double worstAlias = Double.NEGATIVE_INFINITY;
+        if (to < from) {
+            for (double fraction : new double[]{STOPBAND_EDGE, 1.25, 1.5, 2.5}) {
+                double f = fraction * to / 2;
+                if (f < 0.95 * from / 2) {
+                    worstAlias = Math.max(worstAlias, toneResponse(resampler, from, to, f)[2]);
+                }
+            }
+        }
+
+        int failures = 0;
+        if (worstRipple > PASSBAND_RIPPLE_DB) failures++;
+        if (worstImage > STOPBAND_DB) failures++;
+        if (worstAlias > STOPBAND_DB) failures++;
+        System.out.printf("%6d -> %6d (L=%d, M=%d): неравномерность %.4f дБ, зеркала %.1f дБ, наложение %s%s%n",
+                from, to, resampler.interpolation(), resampler.decimation(), worstRipple, worstImage,
+                to < from ? String.format("%.1f дБ", worstAlias) : "-", failures > 0 ? "  НАРУШЕНИЕ" : "");
+        return failures;
+    }
+
+    // Тон частоты f: усиление в дБ, уровень остатка после вычитания тона и полный уровень выхода (дБ
+    // относительно входной амплитуды). Края результата, где сказывается начало и конец сигнала, отбрасываются.
+    private static double[] toneResponse(PolyphaseResampler resampler, int from, int to, double f) {
+        double[] input = new double[(int) (DURATION * from)];
+        for (int i = 0; i < input.length; i++) input[i] = Math.sin(2 * Math.PI * f * i / from);
+        double[] output = resampler.resample(input);
+
+        int start = output.length / 5;
+        int end = output.length - start;
+        // Наименьшие квадраты для a·sin + b·cos на частоте f выходной сетки
+        double ss = 0, cc = 0, sc = 0, ys = 0, yc = 0, yy = 0;
+        for (int n = start; n < end; n++) {
+            double s = Math.sin(2 * Math.PI * f * n / to);
+            double c = Math.cos(2 * Math.PI * f * n / to);
+            ss += s * s;
+            cc += c * c;
+            sc += s * c;
+            ys += output[n] * s;
+            yc += output[n] * c;
+            yy += output[n] * output[n];
+        }
+        double det = ss * cc - sc * sc;
+        double a = (ys * cc - yc * sc) / det;
+        double b = (yc * ss - ys * sc) / det;
+        double residual = Math.max(0, yy - a * ys - b * yc);
+
+        int count = end - start;
+        double gainDb = 20 * Math.log10(Math.hypot(a, b));
+        // Синус единичной амплитуды имеет средний квадрат 1/2
+        double residualDb = 10 * Math.log10(Math.max(residual / count * 2, 1e-30));
+        double totalDb = 10 * Math.log10(Math.max(yy / count * 2, 1e-30));
+        return new double[]{gainDb, residualDb, totalDb};
+    }
+}
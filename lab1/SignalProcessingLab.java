@@ -13,7 +13,12 @@ import javax.swing.*;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
 
 public class SignalProcessingLab {
     // Параметры сигналов
@@ -29,8 +34,7 @@ public class SignalProcessingLab {
 
     private static final double DURATION = 0.1;
     private static final int SAMPLE_RATE = 44100;
-    private static final int N = (int)(DURATION * SAMPLE_RATE);
-    private static final int FFT_SIZE = nextPowerOfTwo(N);
+    private static final Integer[] SAMPLE_RATES = {8000, 16000, 44100, 48000, 96000};
 
     // Цветовая схема
     private static final Color LIGHT_BEIGE = new Color(250, 245, 238);
@@ -48,13 +52,100 @@ public class SignalProcessingLab {
     private static final Color SLATE_BLUE = new Color(72, 61, 139);
     private static final Color DARK_SLATE = new Color(47, 79, 79);
 
-    private double[] x;
-    private double[] y;
+    // Параметры выше - значения по умолчанию; текущие хранятся во входах графа
+    private final ComputeGraph graph = new ComputeGraph();
+    private DspWorkspace largeWorkspace;
     private JFrame mainFrame;
 
     public SignalProcessingLab() {
-        x = generateSignal(A_x, f0_x, h_x, phi_x, FFT_SIZE);
-        y = generateSignal(A_y, f0_y, h_y, phi_y, FFT_SIZE);
+        graph.addInput("paramsX", new SignalParams(A_x, f0_x, h_x, phi_x));
+        graph.addInput("paramsY", new SignalParams(A_y, f0_y, h_y, phi_y));
+        graph.addInput("sampling", new Sampling(DURATION, SAMPLE_RATE));
+        buildGraph();
+    }
+
+    // Параметры одного сигнала: сумма A[j]·sin(2π·h[j]·f0·t + φ)
+    record SignalParams(double[] amplitudes, double f0, int[] harmonics, double phi) {
+    }
+
+    record Sampling(double duration, int sampleRate) {
+        int n() {
+            return Math.max(1, (int)(duration * sampleRate));
+        }
+
+        int fftSize() {
+            return nextPowerOfTwo(n());
+        }
+    }
+
+    // Спектр БПФ в раздельных массивах re/im, как их заполняет DspWorkspace
+    record Spectrum(double[] re, double[] im) {
+    }
+
+    // Узлы добавляются в порядке зависимостей; быстрые (БПФ) идут раньше медленных (ДПФ),
+    // чтобы при правке их графики обновлялись первыми
+    private void buildGraph() {
+        graph.addNode("x", List.of("paramsX", "sampling"), v -> generateSignal(v.get("paramsX"), v.get("sampling")));
+        graph.addNode("y", List.of("paramsY", "sampling"), v -> generateSignal(v.get("paramsY"), v.get("sampling")));
+
+        // Таблицы БПФ пересоздаются только при смене размера; узлы графа считаются
+        // в одном фоновом потоке, поэтому рабочее пространство у них общее
+        graph.addNode("workspace", List.of("sampling"), v -> {
+            int size = v.<Sampling>get("sampling").fftSize();
+            DspWorkspace current = graph.get("workspace");
+            return current != null && current.size() == size ? current : new DspWorkspace(size);
+        });
+
+        for (String s : List.of("x", "y")) {
+            graph.addNode(s + "FFT", List.of(s, "workspace"), v -> {
+                DspWorkspace ws = v.get("workspace");
+                Spectrum spectrum = new Spectrum(new double[ws.size()], new double[ws.size()]);
+                ws.fft(v.get(s), spectrum.re(), spectrum.im());
+                return spectrum;
+            });
+            graph.addNode(s + "FFTAmp", List.of(s + "FFT"), v -> {
+                Spectrum spectrum = v.get(s + "FFT");
+                double[] amps = new double[spectrum.re().length];
+                amplitudeSpectrum(spectrum.re(), spectrum.im(), amps);
+                return amps;
+            });
+            graph.addNode(s + "FFTPhase", List.of(s + "FFT"), v -> {
+                Spectrum spectrum = v.get(s + "FFT");
+                double[] phases = new double[spectrum.re().length];
+                phaseSpectrum(spectrum.re(), spectrum.im(), phases);
+                return phases;
+            });
+            graph.addNode(s + "IFFT", List.of(s + "FFT", "workspace", "sampling"), v -> {
+                Spectrum spectrum = v.get(s + "FFT");
+                DspWorkspace ws = v.get("workspace");
+                double[] output = new double[ws.size()];
+                ws.ifft(spectrum.re(), spectrum.im(), output);
+                return Arrays.copyOf(output, v.<Sampling>get("sampling").n());
+            });
+            graph.addNode(s + "Short", List.of(s, "sampling"),
+                    v -> Arrays.copyOf(v.<double[]>get(s), Math.min(512, v.<Sampling>get("sampling").n())));
+        }
+
+        graph.addNode("convFFT", List.of("xShort", "yShort"),
+                v -> convolutionFFT(v.<double[]>get("xShort"), v.<double[]>get("yShort")));
+        graph.addNode("corrFFT", List.of("xShort", "yShort"),
+                v -> correlationFFT(v.<double[]>get("xShort"), v.<double[]>get("yShort")));
+        graph.addNode("conv", List.of("xShort", "yShort"),
+                v -> convolution(v.<double[]>get("xShort"), v.<double[]>get("yShort")));
+        graph.addNode("corr", List.of("xShort", "yShort"),
+                v -> correlation(v.<double[]>get("xShort"), v.<double[]>get("yShort")));
+
+        for (String s : List.of("x", "y")) {
+            graph.addNode(s + "DFT", List.of(s, "sampling"),
+                    v -> dft(Arrays.copyOf(v.<double[]>get(s), v.<Sampling>get("sampling").n()), v::cancelled));
+            graph.addNode(s + "DFTAmp", List.of(s + "DFT"), v -> amplitudeSpectrum(v.<Complex[]>get(s + "DFT")));
+            graph.addNode(s + "DFTPhase", List.of(s + "DFT"), v -> phaseSpectrum(v.<Complex[]>get(s + "DFT")));
+            graph.addNode(s + "IDFT", List.of(s + "DFT"), v -> idft(v.<Complex[]>get(s + "DFT"), v::cancelled));
+        }
+    }
+
+    private Sampling sampling() {
+        return graph.get("sampling");
     }
 
     private static int nextPowerOfTwo(int n) {
@@ -65,9 +156,18 @@ public class SignalProcessingLab {
         return power;
     }
 
-    private double[] generateSignal(double[] A, double f0, int[] h, double phi, int size) {
+    private double[] generateSignal(SignalParams params, Sampling sampling) {
+        return generateSignal(params.amplitudes(), params.f0(), params.harmonics(), params.phi(),
+                sampling.fftSize(), sampling.sampleRate());
+    }
+
+    double[] generateSignal(double[] A, double f0, int[] h, double phi, int size) {
+        return generateSignal(A, f0, h, phi, size, sampling().sampleRate());
+    }
+
+    double[] generateSignal(double[] A, double f0, int[] h, double phi, int size, int sampleRate) {
         double[] signal = new double[size];
-        double dt = 1.0 / SAMPLE_RATE;
+        double dt = 1.0 / sampleRate;
 
         for (int i = 0; i < size; i++) {
             double t = i * dt;
@@ -82,9 +182,15 @@ public class SignalProcessingLab {
 
     // Математические методы (сокращаем для читаемости)
     public Complex[] dft(double[] signal) {
+        return dft(signal, () -> false);
+    }
+
+    // Вариант с проверкой отмены перед каждым бином: O(N²) расчет не задерживает новые правки
+    private Complex[] dft(double[] signal, BooleanSupplier cancelled) {
         int N = signal.length;
         Complex[] result = new Complex[N];
         for (int k = 0; k < N; k++) {
+            if (cancelled.getAsBoolean()) throw new CancellationException();
             double real = 0, imag = 0;
             for (int n = 0; n < N; n++) {
                 double angle = -2 * Math.PI * k * n / N;
@@ -97,9 +203,14 @@ public class SignalProcessingLab {
     }
 
     public double[] idft(Complex[] spectrum) {
+        return idft(spectrum, () -> false);
+    }
+
+    private double[] idft(Complex[] spectrum, BooleanSupplier cancelled) {
         int N = spectrum.length;
         double[] result = new double[N];
         for (int n = 0; n < N; n++) {
+            if (cancelled.getAsBoolean()) throw new CancellationException();
             double real = 0;
             for (int k = 0; k < N; k++) {
                 double angle = 2 * Math.PI * k * n / N;
@@ -115,6 +226,18 @@ public class SignalProcessingLab {
         if ((N & (N - 1)) != 0) {
             throw new IllegalArgumentException("N должно быть степенью двойки: N=" + N);
         }
+        // Рекурсия по Complex на таких размерах упирается в кэш и сборщик мусора
+        if (N >= DspWorkspace.SIX_STEP_THRESHOLD) {
+            double[] re = new double[N];
+            double[] im = new double[N];
+            DspWorkspace ws = largeWorkspace(N);
+            synchronized (ws) {
+                ws.fft(signal, re, im);
+            }
+            Complex[] result = new Complex[N];
+            for (int i = 0; i < N; i++) result[i] = new Complex(re[i], im[i]);
+            return result;
+        }
         Complex[] x = new Complex[N];
         for (int i = 0; i < N; i++) {
             x[i] = new Complex(signal[i], 0);
@@ -122,6 +245,16 @@ public class SignalProcessingLab {
         return fftDit(x);
     }
 
+    // Рабочее пространство больших БПФ создается один раз на размер: таблицы
+    // и буфер транспонирования занимают сотни мегабайт. Шестиэтапный режим
+    // использует общий буфер, поэтому вызовы синхронизируются по нему.
+    private synchronized DspWorkspace largeWorkspace(int size) {
+        if (largeWorkspace == null || largeWorkspace.size() != size) {
+            largeWorkspace = new DspWorkspace(size);
+        }
+        return largeWorkspace;
+    }
+
     private Complex[] fftDit(Complex[] x) {
         int N = x.length;
         if (N == 1) return new Complex[]{x[0]};
@@ -151,6 +284,20 @@ public class SignalProcessingLab {
 
     public double[] ifft(Complex[] spectrum) {
         int N = spectrum.length;
+        if (N >= DspWorkspace.SIX_STEP_THRESHOLD && (N & (N - 1)) == 0) {
+            double[] re = new double[N];
+            double[] im = new double[N];
+            for (int i = 0; i < N; i++) {
+                re[i] = spectrum[i].re();
+                im[i] = spectrum[i].im();
+            }
+            double[] output = new double[N];
+            DspWorkspace ws = largeWorkspace(N);
+            synchronized (ws) {
+                ws.ifft(re, im, output);
+            }
+            return output;
+        }
         Complex[] conj = new Complex[N];
         for (int i = 0; i < N; i++) {
             conj[i] = spectrum[i].conjugate();
@@ -236,7 +383,112 @@ public class SignalProcessingLab {
         return phases;
     }
 
+    // Варианты без выделения памяти: спектр хранится в раздельных массивах re/im,
+    // результаты пишутся в буферы вызывающего кода
+    public void fft(double[] signal, DspWorkspace ws, double[] re, double[] im) {
+        ws.fft(signal, re, im);
+    }
+
+    public void ifft(double[] re, double[] im, DspWorkspace ws, double[] output) {
+        ws.ifft(re, im, output);
+    }
+
+    public void convolutionFFT(double[] a, double[] b, DspWorkspace ws, double[] output) {
+        ws.convolution(a, b, output);
+    }
+
+    public void correlationFFT(double[] a, double[] b, DspWorkspace ws, double[] output) {
+        ws.correlation(a, b, output);
+    }
+
+    // Постобработка кадра однопроходными ядрами SpectralKernels (фаза - с ошибкой
+    // не больше FAST_ATAN2_MAX_ERROR); точные Math.atan2 - в *Precise
+    public void amplitudeSpectrum(double[] re, double[] im, double[] output) {
+        SpectralKernels.analyze(re, im, output.length, output, null, null, null);
+    }
+
+    public void phaseSpectrum(double[] re, double[] im, double[] output) {
+        SpectralKernels.analyze(re, im, output.length, null, null, null, output);
+    }
+
+    // Амплитуда и фаза за один обход спектра
+    public void magnitudePhase(double[] re, double[] im, double[] magnitude, double[] phase) {
+        SpectralKernels.analyze(re, im, magnitude.length, magnitude, null, null, phase);
+    }
+
+    public void magnitudePhasePrecise(double[] re, double[] im, double[] magnitude, double[] phase) {
+        SpectralKernels.analyzePrecise(re, im, magnitude.length, magnitude, null, null, phase);
+    }
+
+    // Спектр только полосы [fStart, fEnd] с bins отсчетами (chirp-z), без увеличения FFT_SIZE
+    public Complex[] zoomSpectrum(double[] signal, double fStart, double fEnd, int bins) {
+        ZoomFft zoom = new ZoomFft(signal.length, sampling().sampleRate(), fStart, fEnd, bins);
+        double[] re = new double[bins];
+        double[] im = new double[bins];
+        zoom.transform(signal, re, im);
+        Complex[] spectrum = new Complex[bins];
+        for (int k = 0; k < bins; k++) spectrum[k] = new Complex(re[k], im[k]);
+        return spectrum;
+    }
+
+    // Пересчет сигнала к другой частоте дискретизации полифазным фильтром
+    public double[] resample(double[] signal, int fromRate, int toRate) {
+        return new PolyphaseResampler(fromRate, toRate).resample(signal);
+    }
+
+    // Траектория основной частоты (YIN) с шагом hop отсчетов; 0 - тон не найден
+    public double[] pitchTrack(double[] signal, double minFrequency, double maxFrequency, int window, int hop) {
+        PitchDetector detector = new PitchDetector(sampling().sampleRate(), window, minFrequency, maxFrequency, hop);
+        double[] pitches = new double[detector.maxEstimates(signal.length)];
+        int count = detector.process(signal, 0, signal.length, pitches, 0, null, 0);
+        return Arrays.copyOf(pitches, count);
+    }
+
+    // Двумерные свертка и корреляция изображений (построчное хранение) через БПФ
+    public double[] convolution2D(double[] image, int width, int height,
+                                  double[] kernel, int kernelWidth, int kernelHeight) {
+        return Fft2D.convolution(image, width, height, kernel, kernelWidth, kernelHeight);
+    }
+
+    public double[] correlation2D(double[] image, int width, int height,
+                                  double[] template, int templateWidth, int templateHeight) {
+        return Fft2D.correlation(image, width, height, template, templateWidth, templateHeight);
+    }
+
+    // Сохранение и загрузка результатов в формате SpectrumStore
+    public void saveSignal(Path path, double[] signal) throws IOException {
+        SpectrumStore.writeSignal(path, SpectrumStore.Kind.SIGNAL, signal, sampling().sampleRate());
+    }
+
+    public double[] loadSignal(Path path) throws IOException {
+        try (SpectrumStore.Reader reader = SpectrumStore.open(path)) {
+            return reader.readRow(0, 0);
+        }
+    }
+
+    public void saveSpectrum(Path path, Complex[] spectrum) throws IOException {
+        double[] re = new double[spectrum.length];
+        double[] im = new double[spectrum.length];
+        for (int i = 0; i < spectrum.length; i++) {
+            re[i] = spectrum[i].re();
+            im[i] = spectrum[i].im();
+        }
+        SpectrumStore.writeSpectrum(path, re, im, sampling().sampleRate(), SpectrumStore.Window.NONE);
+    }
+
+    public Complex[] loadSpectrum(Path path) throws IOException {
+        try (SpectrumStore.Reader reader = SpectrumStore.open(path)) {
+            double[] re = reader.readRow(0, 0);
+            double[] im = reader.readRow(0, 1);
+            Complex[] spectrum = new Complex[re.length];
+            for (int i = 0; i < re.length; i++) spectrum[i] = new Complex(re[i], im[i]);
+            return spectrum;
+        }
+    }
+
     public void createAndShowGUI() {
+        graph.computeAll();
+
         mainFrame = new JFrame("Лабораторная работа №1");
         mainFrame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         mainFrame.setSize(1600, 900);
@@ -293,18 +545,12 @@ public class SignalProcessingLab {
         panel.add(title);
 
         panel.add(createSeparator());
-        panel.add(createSignalSection("Сигнал x(t) - Бас C2", f0_x + " Гц", A_x, h_x, "0 рад"));
+        panel.add(createSignalSection("Сигнал x(t) - Бас C2", "paramsX"));
         panel.add(Box.createVerticalStrut(15));
-        panel.add(createSignalSection("Сигнал y(t) - Бас D2", f0_y + " Гц", A_y, h_y, "π/2 рад"));
+        panel.add(createSignalSection("Сигнал y(t) - Бас D2", "paramsY"));
         panel.add(Box.createVerticalStrut(15));
         panel.add(createSeparator());
-        panel.add(createParamSection("Параметры дискретизации",
-                new String[][] {
-                        {"Длительность:", DURATION + " с"},
-                        {"Частота дискр.:", SAMPLE_RATE + " Гц"},
-                        {"Количество отсчетов:", String.valueOf(N)},
-                        {"Размер БПФ:", String.valueOf(FFT_SIZE)}
-                }));
+        panel.add(createSamplingSection());
         panel.add(Box.createVerticalGlue());
 
         JLabel navigationHint = new JLabel("<html><center>Как работать с графиками:<br>1. Колесо мыши - масштаб<br>2. Перетаскивание - перемещение</center></html>");
@@ -325,42 +571,78 @@ public class SignalProcessingLab {
         return sep;
     }
 
-    private JPanel createSignalSection(String title, String freq, double[] amps, int[] harms, String phase) {
-        JPanel panel = new JPanel();
-        panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
-        panel.setBackground(CREAM);
-        panel.setAlignmentX(Component.LEFT_ALIGNMENT);
-
-        JLabel titleLabel = new JLabel(title);
-        titleLabel.setFont(new Font("Arial", Font.BOLD, 12));
-        titleLabel.setForeground(SLATE_BLUE);
-        titleLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
-        panel.add(titleLabel);
-        panel.add(Box.createVerticalStrut(5));
+    // Редактор параметров сигнала: любая правка записывается во вход графа input
+    private JPanel createSignalSection(String title, String input) {
+        SignalParams initial = graph.get(input);
+        JPanel panel = createSectionPanel(title);
 
-        addParamLine(panel, "Базовая частота:", freq);
+        JSlider f0Slider = createParamSlider(20, 500, (int) Math.round(initial.f0()));
+        JLabel f0Label = addParamLine(panel, "Базовая частота:", formatFrequency(initial.f0()));
+        panel.add(f0Slider);
 
-        StringBuilder ampsStr = new StringBuilder("[");
+        JSpinner[] amps = new JSpinner[initial.amplitudes().length];
         for (int i = 0; i < amps.length; i++) {
-            ampsStr.append(amps[i]);
-            if (i < amps.length - 1) ampsStr.append(", ");
+            amps[i] = createParamSpinner(new SpinnerNumberModel(initial.amplitudes()[i], 0.0, 2.0, 0.1));
         }
-        ampsStr.append("]");
-        addParamLine(panel, "Амплитуды:", ampsStr.toString());
+        addControlLine(panel, "Амплитуды:", amps);
 
-        StringBuilder harmsStr = new StringBuilder("[");
+        JSpinner[] harms = new JSpinner[initial.harmonics().length];
         for (int i = 0; i < harms.length; i++) {
-            harmsStr.append(harms[i]);
-            if (i < harms.length - 1) harmsStr.append(", ");
+            harms[i] = createParamSpinner(new SpinnerNumberModel(initial.harmonics()[i], 1, 20, 1));
         }
-        harmsStr.append("]");
-        addParamLine(panel, "Гармоники:", harmsStr.toString());
+        addControlLine(panel, "Гармоники:", harms);
+
+        JSlider phaseSlider = createParamSlider(0, 360, (int) Math.round(Math.toDegrees(initial.phi())));
+        JLabel phaseLabel = addParamLine(panel, "Фаза:", formatPhase(initial.phi()));
+        panel.add(phaseSlider);
+
+        Runnable update = () -> {
+            double[] a = new double[amps.length];
+            for (int i = 0; i < a.length; i++) a[i] = ((Number) amps[i].getValue()).doubleValue();
+            int[] h = new int[harms.length];
+            for (int i = 0; i < h.length; i++) h[i] = ((Number) harms[i].getValue()).intValue();
+            double f0 = f0Slider.getValue();
+            double phi = Math.toRadians(phaseSlider.getValue());
+
+            f0Label.setText(formatFrequency(f0));
+            phaseLabel.setText(formatPhase(phi));
+            graph.set(input, new SignalParams(a, f0, h, phi));
+        };
+        f0Slider.addChangeListener(e -> update.run());
+        phaseSlider.addChangeListener(e -> update.run());
+        for (JSpinner spinner : amps) spinner.addChangeListener(e -> update.run());
+        for (JSpinner spinner : harms) spinner.addChangeListener(e -> update.run());
+        return panel;
+    }
 
-        addParamLine(panel, "Фаза:", phase);
+    private JPanel createSamplingSection() {
+        Sampling initial = sampling();
+        JPanel panel = createSectionPanel("Параметры дискретизации");
+
+        JSpinner duration = createParamSpinner(new SpinnerNumberModel(initial.duration(), 0.01, 1.0, 0.01));
+        addControlLine(panel, "Длительность, с:", duration);
+
+        JComboBox<Integer> sampleRate = new JComboBox<>(SAMPLE_RATES);
+        sampleRate.setSelectedItem(initial.sampleRate());
+        sampleRate.setFont(new Font("Arial", Font.PLAIN, 11));
+        addControlLine(panel, "Частота дискр., Гц:", sampleRate);
+
+        JLabel nLabel = addParamLine(panel, "Количество отсчетов:", String.valueOf(initial.n()));
+        JLabel fftLabel = addParamLine(panel, "Размер БПФ:", String.valueOf(initial.fftSize()));
+        graph.addListener("sampling", value -> {
+            Sampling sampling = (Sampling) value;
+            nLabel.setText(String.valueOf(sampling.n()));
+            fftLabel.setText(String.valueOf(sampling.fftSize()));
+        });
+
+        Runnable update = () -> graph.set("sampling", new Sampling(
+                ((Number) duration.getValue()).doubleValue(), (Integer) sampleRate.getSelectedItem()));
+        duration.addChangeListener(e -> update.run());
+        sampleRate.addActionListener(e -> update.run());
         return panel;
     }
 
-    private JPanel createParamSection(String title, String[][] params) {
+    private JPanel createSectionPanel(String title) {
         JPanel panel = new JPanel();
         panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
         panel.setBackground(CREAM);
@@ -372,12 +654,52 @@ public class SignalProcessingLab {
         titleLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
         panel.add(titleLabel);
         panel.add(Box.createVerticalStrut(5));
-
-        for (String[] param : params) addParamLine(panel, param[0], param[1]);
         return panel;
     }
 
-    private void addParamLine(JPanel parent, String label, String value) {
+    private JSlider createParamSlider(int min, int max, int value) {
+        JSlider slider = new JSlider(min, max, value);
+        slider.setBackground(CREAM);
+        slider.setMaximumSize(new Dimension(250, 25));
+        slider.setAlignmentX(Component.LEFT_ALIGNMENT);
+        return slider;
+    }
+
+    private JSpinner createParamSpinner(SpinnerNumberModel model) {
+        JSpinner spinner = new JSpinner(model);
+        spinner.setFont(new Font("Arial", Font.PLAIN, 11));
+        spinner.setPreferredSize(new Dimension(55, 22));
+        return spinner;
+    }
+
+    private String formatFrequency(double f0) {
+        return String.format("%.0f Гц", f0);
+    }
+
+    private String formatPhase(double phi) {
+        return String.format("%.2f рад", phi);
+    }
+
+    private void addControlLine(JPanel parent, String label, JComponent... controls) {
+        JPanel line = new JPanel(new BorderLayout());
+        line.setBackground(CREAM);
+        line.setMaximumSize(new Dimension(250, 28));
+        line.setAlignmentX(Component.LEFT_ALIGNMENT);
+
+        JLabel name = new JLabel(label);
+        name.setFont(new Font("Arial", Font.PLAIN, 11));
+        name.setForeground(WARM_GRAY);
+
+        JPanel right = new JPanel(new FlowLayout(FlowLayout.RIGHT, 2, 0));
+        right.setBackground(CREAM);
+        for (JComponent control : controls) right.add(control);
+
+        line.add(name, BorderLayout.WEST);
+        line.add(right, BorderLayout.EAST);
+        parent.add(line);
+    }
+
+    private JLabel addParamLine(JPanel parent, String label, String value) {
         JPanel line = new JPanel(new BorderLayout());
         line.setBackground(CREAM);
         line.setMaximumSize(new Dimension(250, 25));
@@ -395,6 +717,7 @@ public class SignalProcessingLab {
         line.add(name, BorderLayout.WEST);
         line.add(val, BorderLayout.EAST);
         parent.add(line);
+        return val;
     }
 
     private JPanel createAllGraphsPanel() {
@@ -424,10 +747,10 @@ public class SignalProcessingLab {
         panel.setBackground(LIGHT_BEIGE);
         panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
-        panel.add(createDynamicChartPanel(x, "1. x(t) - Сигнал C2", "Время, мс", "Амплитуда",
+        panel.add(createDynamicChartPanel("x", "1. x(t) - Сигнал C2", "Время, мс", "Амплитуда",
                 FOREST_GREEN, true, false));
 
-        panel.add(createDynamicChartPanel(y, "2. y(t) - Сигнал D2", "Время, мс", "Амплитуда",
+        panel.add(createDynamicChartPanel("y", "2. y(t) - Сигнал D2", "Время, мс", "Амплитуда",
                 TERRA_COTTA, true, false));
 
         return panel;
@@ -438,18 +761,15 @@ public class SignalProcessingLab {
         panel.setBackground(LIGHT_BEIGE);
         panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
-        Complex[] xDFT = dft(Arrays.copyOf(x, N));
-        double[] xIDFT = idft(xDFT);
-
-        panel.add(createDynamicChartPanel(amplitudeSpectrum(xDFT),
+        panel.add(createDynamicChartPanel("xDFTAmp",
                 "3. x(t): Амплитудный спектр (ДПФ)", "Частота, Гц", "Амплитуда",
                 FOREST_GREEN, false, true));
 
-        panel.add(createDynamicChartPanel(phaseSpectrum(xDFT),
+        panel.add(createDynamicChartPanel("xDFTPhase",
                 "4. x(t): Фазовый спектр (ДПФ)", "Частота, Гц", "Фаза, рад",
                 SLATE_BLUE, false, true));
 
-        panel.add(createDynamicChartPanel(xIDFT,
+        panel.add(createDynamicChartPanel("xIDFT",
                 "5. x(t): ОДПФ", "Время, мс", "Амплитуда",
                 EARTH_GREEN, true, false));
 
@@ -461,18 +781,15 @@ public class SignalProcessingLab {
         panel.setBackground(LIGHT_BEIGE);
         panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
-        Complex[] xFFT = fft(x);
-        double[] xIFFT = ifft(xFFT);
-
-        panel.add(createDynamicChartPanel(amplitudeSpectrum(xFFT),
+        panel.add(createDynamicChartPanel("xFFTAmp",
                 "6. x(t): Амплитудный спектр (БПФ)", "Частота, Гц", "Амплитуда",
                 FOREST_GREEN, false, true));
 
-        panel.add(createDynamicChartPanel(phaseSpectrum(xFFT),
+        panel.add(createDynamicChartPanel("xFFTPhase",
                 "7. x(t): Фазовый спектр (БПФ)", "Частота, Гц", "Фаза, рад",
                 SLATE_BLUE, false, true));
 
-        panel.add(createDynamicChartPanel(Arrays.copyOf(xIFFT, N),
+        panel.add(createDynamicChartPanel("xIFFT",
                 "8. x(t): ОБПФ", "Время, мс", "Амплитуда",
                 EARTH_GREEN, true, false));
 
@@ -484,18 +801,15 @@ public class SignalProcessingLab {
         panel.setBackground(LIGHT_BEIGE);
         panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
-        Complex[] yDFT = dft(Arrays.copyOf(y, N));
-        double[] yIDFT = idft(yDFT);
-
-        panel.add(createDynamicChartPanel(amplitudeSpectrum(yDFT),
+        panel.add(createDynamicChartPanel("yDFTAmp",
                 "9. y(t): Амплитудный спектр (ДПФ)", "Частота, Гц", "Амплитуда",
                 TERRA_COTTA, false, true));
 
-        panel.add(createDynamicChartPanel(phaseSpectrum(yDFT),
+        panel.add(createDynamicChartPanel("yDFTPhase",
                 "10. y(t): Фазовый спектр (ДПФ)", "Частота, Гц", "Фаза, рад",
                 DARK_SLATE, false, true));
 
-        panel.add(createDynamicChartPanel(yIDFT,
+        panel.add(createDynamicChartPanel("yIDFT",
                 "11. y(t): ОДПФ", "Время, мс", "Амплитуда",
                 EARTH_GREEN, true, false));
 
@@ -507,18 +821,15 @@ public class SignalProcessingLab {
         panel.setBackground(LIGHT_BEIGE);
         panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
-        Complex[] yFFT = fft(y);
-        double[] yIFFT = ifft(yFFT);
-
-        panel.add(createDynamicChartPanel(amplitudeSpectrum(yFFT),
+        panel.add(createDynamicChartPanel("yFFTAmp",
                 "12. y(t): Амплитудный спектр (БПФ)", "Частота, Гц", "Амплитуда",
                 TERRA_COTTA, false, true));
 
-        panel.add(createDynamicChartPanel(phaseSpectrum(yFFT),
+        panel.add(createDynamicChartPanel("yFFTPhase",
                 "13. y(t): Фазовый спектр (БПФ)", "Частота, Гц", "Фаза, рад",
                 DARK_SLATE, false, true));
 
-        panel.add(createDynamicChartPanel(Arrays.copyOf(yIFFT, N),
+        panel.add(createDynamicChartPanel("yIFFT",
                 "14. y(t): ОБПФ", "Время, мс", "Амплитуда",
                 EARTH_GREEN, true, false));
 
@@ -530,27 +841,19 @@ public class SignalProcessingLab {
         panel.setBackground(LIGHT_BEIGE);
         panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
-        double[] xShort = Arrays.copyOf(x, Math.min(512, N));
-        double[] yShort = Arrays.copyOf(y, Math.min(512, N));
-
-        double[] conv = convolution(xShort, yShort);
-        double[] convFFT = convolutionFFT(xShort, yShort);
-        double[] corr = correlation(xShort, yShort);
-        double[] corrFFT = correlationFFT(xShort, yShort);
-
-        panel.add(createDynamicChartPanel(conv,
+        panel.add(createDynamicChartPanel("conv",
                 "15. Свертка x(t)*y(t)", "Время, мс", "Амплитуда",
                 FOREST_GREEN, true, false));
 
-        panel.add(createDynamicChartPanel(convFFT,
+        panel.add(createDynamicChartPanel("convFFT",
                 "16. Свертка через БПФ", "Время, мс", "Амплитуда",
                 EARTH_GREEN, true, false));
 
-        panel.add(createDynamicChartPanel(corr,
+        panel.add(createDynamicChartPanel("corr",
                 "17. Корреляция x(t) и y(t)", "Время, мс", "Амплитуда",
                 SLATE_BLUE, true, false));
 
-        panel.add(createDynamicChartPanel(corrFFT,
+        panel.add(createDynamicChartPanel("corrFFT",
                 "18. Корреляция через БПФ", "Время, мс", "Амплитуда",
                 DARK_SLATE, true, false));
 
@@ -562,22 +865,19 @@ public class SignalProcessingLab {
         panel.setBackground(LIGHT_BEIGE);
         panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
-        Complex[] xFFT = fft(x);
-        Complex[] yFFT = fft(y);
-
-        panel.add(createDynamicChartPanel(amplitudeSpectrum(xFFT),
+        panel.add(createDynamicChartPanel("xFFTAmp",
                 "19. x(t): БПФ амплитудный (библиотека)", "Частота, Гц", "Амплитуда",
                 FOREST_GREEN, false, true));
 
-        panel.add(createDynamicChartPanel(phaseSpectrum(xFFT),
+        panel.add(createDynamicChartPanel("xFFTPhase",
                 "20. x(t): БПФ фазовый (библиотека)", "Частота, Гц", "Фаза, рад",
                 SLATE_BLUE, false, true));
 
-        panel.add(createDynamicChartPanel(amplitudeSpectrum(yFFT),
+        panel.add(createDynamicChartPanel("yFFTAmp",
                 "21. y(t): БПФ амплитудный (библиотека)", "Частота, Гц", "Амплитуда",
                 TERRA_COTTA, false, true));
 
-        panel.add(createDynamicChartPanel(phaseSpectrum(yFFT),
+        panel.add(createDynamicChartPanel("yFFTPhase",
                 "22. y(t): БПФ фазовый (библиотека)", "Частота, Гц", "Фаза, рад",
                 DARK_SLATE, false, true));
 
@@ -589,24 +889,18 @@ public class SignalProcessingLab {
         panel.setBackground(LIGHT_BEIGE);
         panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
 
-        double[] xShort = Arrays.copyOf(x, Math.min(512, N));
-        double[] yShort = Arrays.copyOf(y, Math.min(512, N));
-
-        double[] convFFT = convolutionFFT(xShort, yShort);
-        double[] corrFFT = correlationFFT(xShort, yShort);
-
-        panel.add(createDynamicChartPanel(convFFT,
+        panel.add(createDynamicChartPanel("convFFT",
                 "23. Свертка (библиотека)", "Время, мс", "Амплитуда",
                 FOREST_GREEN, true, false));
 
-        panel.add(createDynamicChartPanel(corrFFT,
+        panel.add(createDynamicChartPanel("corrFFT",
                 "24. Корреляция (библиотека)", "Время, мс", "Амплитуда",
                 SLATE_BLUE, true, false));
 
         return panel;
     }
 
-    private JPanel createDynamicChartPanel(double[] data, String title,
+    private JPanel createDynamicChartPanel(String node, String title,
                                            String xLabel, String yLabel,
                                            Color color, boolean isTimeDomain, boolean isSpectrum) {
         JPanel mainPanel = new JPanel(new BorderLayout());
@@ -622,20 +916,13 @@ public class SignalProcessingLab {
         chartTitle.setForeground(DARK_BROWN);
         chartTitle.setBorder(BorderFactory.createEmptyBorder(0, 5, 5, 5));
 
-        // Создаем график с ВСЕМИ данными
+        // Создаем график с ВСЕМИ данными; при пересчете узла серия заполняется заново
+        double[] data = graph.get(node);
         XYSeries fullSeries = new XYSeries("Данные");
-        double dt = isTimeDomain ? (1.0 / SAMPLE_RATE * 1000) : 1.0;
-        double scale = isSpectrum ? (SAMPLE_RATE / (double)data.length) : 1.0;
-
-        // Для спектров показываем только половину (до частоты Найквиста)
-        int displayLength = isSpectrum ? data.length / 2 : data.length;
-        int step = Math.max(1, displayLength / 2000); // Увеличиваем количество точек для гладкости
-
-        for (int i = 0; i < displayLength; i += step) {
-            double xValue = i * (isTimeDomain ? dt : scale);
-            double yValue = data[i];
-            fullSeries.add(xValue, yValue);
-        }
+        int displayLength = fillSeries(fullSeries, data, sampling().sampleRate(), isTimeDomain, isSpectrum);
+        // Ось строится по частоте дискретизации, с которой посчитано значение, а не по текущей
+        graph.addListener(node, (value, inputs) -> fillSeries(fullSeries, (double[]) value,
+                ((Sampling) inputs.get("sampling")).sampleRate(), isTimeDomain, isSpectrum));
 
         XYSeriesCollection fullDataset = new XYSeriesCollection();
         fullDataset.addSeries(fullSeries);
@@ -673,6 +960,26 @@ public class SignalProcessingLab {
         return mainPanel;
     }
 
+    private int fillSeries(XYSeries series, double[] data, int sampleRate, boolean isTimeDomain, boolean isSpectrum) {
+        double dt = isTimeDomain ? (1.0 / sampleRate * 1000) : 1.0;
+        double scale = isSpectrum ? (sampleRate / (double)data.length) : 1.0;
+
+        // Для спектров показываем только половину (до частоты Найквиста)
+        int displayLength = isSpectrum ? data.length / 2 : data.length;
+        int step = Math.max(1, displayLength / 2000); // Увеличиваем количество точек для гладкости
+
+        // Одно событие изменения на весь пересчет вместо события на каждую точку
+        series.setNotify(false);
+        series.clear();
+        for (int i = 0; i < displayLength; i += step) {
+            double xValue = i * (isTimeDomain ? dt : scale);
+            double yValue = data[i];
+            series.add(xValue, yValue, false);
+        }
+        series.setNotify(true);
+        return displayLength;
+    }
+
     private JPanel createNavigationControlPanel(ChartPanel chartPanel, int dataLength, String unit) {
         JPanel panel = new JPanel(new BorderLayout(5, 5));
         panel.setBackground(LIGHT_GRAY);
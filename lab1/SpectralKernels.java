@@ -0,0 +1,78 @@
+package org.example;
+
+// Однопроходная постобработка спектра: амплитуда, мощность, уровень в дБ и фаза
+// считаются за один обход раздельных массивов re/im. Любой из выходных
+// массивов может быть null - соответствующая величина тогда не вычисляется.
+public final class SpectralKernels {
+    // Максимальная абсолютная ошибка fastAtan2 на всей плоскости, рад (~0.0001°)
+    public static final double FAST_ATAN2_MAX_ERROR = 2.0e-6;
+    // Максимальная абсолютная ошибка fastPowerToDb, дБ
+    public static final double FAST_DB_MAX_ERROR = 1.0e-4;
+    // Нижняя граница уровня: нулевые бины дают DB_FLOOR вместо -∞
+    public static final double DB_FLOOR = -200.0;
+
+    private static final double POWER_FLOOR = 1e-20;
+    private static final double HALF_PI = Math.PI / 2;
+    private static final double DB_PER_LOG2 = 10.0 * Math.log10(2.0);
+    private static final long MANTISSA_MASK = 0x000FFFFFFFFFFFFFL;
+    private static final long EXPONENT_ONE = 0x3FF0000000000000L;
+
+    private SpectralKernels() {
+    }
+
+    // Быстрый вариант: полиномиальные atan2 и log2 вместо Math.atan2/Math.log10
+    public static void analyze(double[] re, double[] im, int length,
+                               double[] magnitude, double[] power, double[] db, double[] phase) {
+        for (int i = 0; i < length; i++) {
+            double r = re[i];
+            double m = im[i];
+            double p = r * r + m * m;
+            if (magnitude != null) magnitude[i] = Math.sqrt(p);
+            if (power != null) power[i] = p;
+            if (db != null) db[i] = fastPowerToDb(p);
+            if (phase != null) phase[i] = fastAtan2(m, r);
+        }
+    }
+
+    // Точный вариант с Math.atan2 и Math.log10
+    public static void analyzePrecise(double[] re, double[] im, int length,
+                                      double[] magnitude, double[] power, double[] db, double[] phase) {
+        for (int i = 0; i < length; i++) {
+            double r = re[i];
+            double m = im[i];
+            double p = r * r + m * m;
+            if (magnitude != null) magnitude[i] = Math.sqrt(p);
+            if (power != null) power[i] = p;
+            if (db != null) db[i] = 10.0 * Math.log10(Math.max(p, POWER_FLOOR));
+            if (phase != null) phase[i] = Math.atan2(m, r);
+        }
+    }
+
+    // atan(t) на [0, 1] минимаксным полиномом 11-й степени, затем
+    // приведение к нужному октанту без вызова тригонометрии
+    public static double fastAtan2(double y, double x) {
+        double ax = Math.abs(x);
+        double ay = Math.abs(y);
+        double max = Math.max(ax, ay);
+        double t = max == 0 ? 0 : Math.min(ax, ay) / max;
+        double s = t * t;
+        double r = t * (0.99997726 + s * (-0.33262347 + s * (0.19354346
+                + s * (-0.11643287 + s * (0.05265332 + s * -0.01172120)))));
+        if (ay > ax) r = HALF_PI - r;
+        if (x < 0) r = Math.PI - r;
+        return y < 0 ? -r : r;
+    }
+
+    // 10·log10(p) через разбор экспоненты и полином для log2 мантиссы на [1, 2)
+    public static double fastPowerToDb(double p) {
+        if (!(p > POWER_FLOOR)) return DB_FLOOR;
+        long bits = Double.doubleToRawLongBits(p);
+        int exponent = (int) (bits >>> 52) - 1023;
+        double m = Double.longBitsToDouble((bits & MANTISSA_MASK) | EXPONENT_ONE);
+        double u = (m - 1) / (m + 1);
+        double u2 = u * u;
+        double log2m = u * (2.8853900817779268 + u2 * (0.9617966939259756
+                + u2 * (0.5770780163555854 + u2 * 0.4121985831111324)));
+        return (exponent + log2m) * DB_PER_LOG2;
+    }
+}
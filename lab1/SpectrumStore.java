@@ -0,0 +1,336 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Двоичный формат для сигналов, спектров, спектрограмм и результатов свертки/корреляции.
+//
+// Файл - заголовок HEADER_SIZE байт, затем блоки данных. Блок покрывает chunkRows строк
+// и chunkColumns столбцов: узкие строки (спектрограмма) группируются по несколько в блок,
+// а длинная строка (сигнал, свертка, корреляция) режется по столбцам. Каждый блок
+// начинается с границы CHUNK_ALIGNMENT и читается отдельным FileChannel.map, так что
+// ни файл, ни одна строка не ограничены 2 ГБ, а в память попадают только просматриваемые
+// участки. Внутри блока строка хранит components подряд идущих векторов по chunkColumns
+// значений (для комплексного спектра: сначала re, затем im). Все числа - little-endian.
+//
+// Заголовок: magic "DSPS", версия (short), тип (byte), точность (byte, байт на значение),
+// частота дискретизации, размер БПФ, окно (byte), components (byte), 2 резервных байта,
+// columns (int), rows (long), chunkRows (int), смещение данных (int), chunkColumns (int),
+// резерв до 64 байт.
+public final class SpectrumStore {
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 64;
+    public static final int CHUNK_ALIGNMENT = 4096;
+    private static final int MAGIC = 0x53505344; // "DSPS" в little-endian
+    private static final int TARGET_CHUNK_BYTES = 4 << 20;
+    private static final int WRITE_BUFFER_BYTES = 64 << 10;
+
+    private SpectrumStore() {
+    }
+
+    // Порядок констант определяет их код в файле - новые значения только добавлять в конец
+    public enum Kind { SIGNAL, SPECTRUM, SPECTROGRAM, CONVOLUTION, CORRELATION }
+
+    public enum Window { NONE, HANN, HAMMING, BLACKMAN, KAISER }
+
+    public enum Precision {
+        FLOAT32(4), FLOAT64(8);
+
+        final int bytes;
+
+        Precision(int bytes) {
+            this.bytes = bytes;
+        }
+    }
+
+    public record Header(Kind kind, Precision precision, int sampleRate, int fftSize, Window window,
+                         int components, int columns, long rows, int chunkRows, int chunkColumns) {
+        // Байт на строку внутри блока (все компоненты по chunkColumns значений)
+        long chunkRowBytes() {
+            return (long) components * chunkColumns * precision.bytes;
+        }
+
+        long chunkStride() {
+            long bytes = chunkRowBytes() * chunkRows;
+            return (bytes + CHUNK_ALIGNMENT - 1) / CHUNK_ALIGNMENT * CHUNK_ALIGNMENT;
+        }
+
+        int columnChunks() {
+            return Math.max(1, (columns + chunkColumns - 1) / chunkColumns);
+        }
+
+        long chunkCount() {
+            return (rows + chunkRows - 1) / chunkRows * columnChunks();
+        }
+
+        // Смещение блока с началом в строке row и столбце column относительно начала данных
+        long chunkOffset(long row, int column) {
+            return (row / chunkRows * columnChunks() + column / chunkColumns) * chunkStride();
+        }
+    }
+
+    // Заголовок с размером блока около 4 МБ: несколько строк в блоке, либо, если строка
+    // больше блока, часть строки. Число строк заполняется при закрытии Writer.
+    public static Header header(Kind kind, Precision precision, int sampleRate, int fftSize,
+                                Window window, int components, int columns) {
+        if (components < 1 || components > Byte.MAX_VALUE || columns < 0) {
+            throw new IllegalArgumentException("Неверные размеры: components=" + components + ", columns=" + columns);
+        }
+        long rowBytes = (long) components * columns * precision.bytes;
+        int chunkRows = 1;
+        int chunkColumns = Math.max(1, columns);
+        if (rowBytes <= TARGET_CHUNK_BYTES) {
+            chunkRows = (int) Math.max(1, TARGET_CHUNK_BYTES / Math.max(1, rowBytes));
+        } else {
+            chunkColumns = TARGET_CHUNK_BYTES / (components * precision.bytes);
+        }
+        return new Header(kind, precision, sampleRate, fftSize, window, components, columns, 0, chunkRows, chunkColumns);
+    }
+
+    public static Writer create(Path path, Header header) throws IOException {
+        return new Writer(path, header);
+    }
+
+    public static Reader open(Path path) throws IOException {
+        return new Reader(path);
+    }
+
+    // Однострочные записи: вещественный сигнал и комплексный спектр
+    public static void writeSignal(Path path, Kind kind, double[] signal, int sampleRate) throws IOException {
+        try (Writer writer = create(path, header(kind, Precision.FLOAT64, sampleRate, 0, Window.NONE, 1, signal.length))) {
+            writer.writeRow(signal);
+        }
+    }
+
+    public static void writeSpectrum(Path path, double[] re, double[] im, int sampleRate, Window window) throws IOException {
+        try (Writer writer = create(path, header(Kind.SPECTRUM, Precision.FLOAT64, sampleRate, re.length, window, 2, re.length))) {
+            writer.writeRow(re, im);
+        }
+    }
+
+    // Последовательная запись строк; заголовок с итоговым числом строк пишется в close()
+    public static class Writer implements Closeable {
+        private final FileChannel channel;
+        private final Header header;
+        private final ByteBuffer buffer;
+        private long rows;
+
+        private Writer(Path path, Header header) throws IOException {
+            if (header.chunkStride() > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Блок больше 2 ГБ: уменьшите chunkRows или chunkColumns");
+            }
+            this.header = header;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        // Одна строка: по массиву на каждую компоненту, каждый длиной columns.
+        // Пишется кусками через буфер WRITE_BUFFER_BYTES, поэтому строка может быть любой длины.
+        public void writeRow(double[]... components) throws IOException {
+            if (components.length != header.components()) {
+                throw new IllegalArgumentException("Ожидается компонент: " + header.components() + ", передано: " + components.length);
+            }
+            for (double[] values : components) {
+                if (values.length < header.columns()) {
+                    throw new IllegalArgumentException("Строка короче columns: " + values.length + " < " + header.columns());
+                }
+            }
+            int bytes = header.precision().bytes;
+            int piece = WRITE_BUFFER_BYTES / bytes;
+            long rowInChunk = rows % header.chunkRows();
+            for (int chunkStart = 0; chunkStart < header.columns(); chunkStart += header.chunkColumns()) {
+                int chunkEnd = Math.min(chunkStart + header.chunkColumns(), header.columns());
+                long chunkRow = CHUNK_ALIGNMENT + header.chunkOffset(rows, chunkStart) + rowInChunk * header.chunkRowBytes();
+                for (int c = 0; c < components.length; c++) {
+                    long position = chunkRow + (long) c * header.chunkColumns() * bytes;
+                    for (int from = chunkStart; from < chunkEnd; from += piece) {
+                        int to = Math.min(from + piece, chunkEnd);
+                        buffer.clear();
+                        for (int i = from; i < to; i++) {
+                            if (header.precision() == Precision.FLOAT32) buffer.putFloat((float) components[c][i]);
+                            else buffer.putDouble(components[c][i]);
+                        }
+                        buffer.flip();
+                        while (buffer.hasRemaining()) {
+                            position += channel.write(buffer, position);
+                        }
+                    }
+                }
+            }
+            rows++;
+        }
+
+        public long rows() {
+            return rows;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                buffer.putInt(MAGIC);
+                buffer.putShort((short) VERSION);
+                buffer.put((byte) header.kind().ordinal());
+                buffer.put((byte) header.precision().bytes);
+                buffer.putInt(header.sampleRate());
+                buffer.putInt(header.fftSize());
+                buffer.put((byte) header.window().ordinal());
+                buffer.put((byte) header.components());
+                buffer.putShort((short) 0);
+                buffer.putInt(header.columns());
+                buffer.putLong(rows);
+                buffer.putInt(header.chunkRows());
+                buffer.putInt(CHUNK_ALIGNMENT);
+                buffer.putInt(header.chunkColumns());
+                buffer.position(HEADER_SIZE);
+                buffer.flip();
+                long position = 0;
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+                // Без строк (rows = 0 или columns = 0) данные не записывались; дополняем файл
+                // до начала данных, чтобы он читался как любой другой
+                if (channel.size() < CHUNK_ALIGNMENT) {
+                    channel.write(ByteBuffer.allocate(1), CHUNK_ALIGNMENT - 1);
+                }
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    // Чтение через отображение блоков в память; блок отображается при первом обращении
+    public static class Reader implements Closeable {
+        private final FileChannel channel;
+        private final Header header;
+        private final long dataOffset;
+        private final MappedByteBuffer[] chunks;
+
+        private static <E extends Enum<E>> E decode(E[] values, int code, String what) throws IOException {
+            if (code < 0 || code >= values.length) {
+                throw new IOException("Неизвестный код (" + what + "): " + code);
+            }
+            return values[code];
+        }
+
+        private Reader(Path path) throws IOException {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, buffer.position()) < 0) break;
+                }
+                buffer.flip();
+                if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+                    throw new IOException("Не файл спектра: " + path);
+                }
+                int version = buffer.getShort();
+                if (version != VERSION) {
+                    throw new IOException("Неподдерживаемая версия формата: " + version);
+                }
+                Kind kind = decode(Kind.values(), buffer.get(), "тип данных");
+                int bytes = buffer.get();
+                Precision precision = switch (bytes) {
+                    case 4 -> Precision.FLOAT32;
+                    case 8 -> Precision.FLOAT64;
+                    default -> throw new IOException("Неизвестная точность: " + bytes + " байт на значение");
+                };
+                int sampleRate = buffer.getInt();
+                int fftSize = buffer.getInt();
+                Window window = decode(Window.values(), buffer.get(), "окно");
+                int components = buffer.get();
+                buffer.getShort();
+                int columns = buffer.getInt();
+                long rows = buffer.getLong();
+                int chunkRows = buffer.getInt();
+                dataOffset = buffer.getInt();
+                int chunkColumns = buffer.getInt();
+
+                if (components < 1 || columns < 0 || rows < 0 || chunkRows < 1 || chunkColumns < 1
+                        || dataOffset < HEADER_SIZE || dataOffset > channel.size()) {
+                    throw new IOException("Поврежденный заголовок: components=" + components + ", columns=" + columns
+                            + ", rows=" + rows + ", chunkRows=" + chunkRows + ", chunkColumns=" + chunkColumns);
+                }
+                header = new Header(kind, precision, sampleRate, fftSize, window, components, columns, rows,
+                        chunkRows, chunkColumns);
+                if (header.chunkStride() > Integer.MAX_VALUE || header.chunkCount() > Integer.MAX_VALUE) {
+                    throw new IOException("Поврежденный заголовок: блоков " + header.chunkCount()
+                            + " по " + header.chunkStride() + " байт");
+                }
+                chunks = new MappedByteBuffer[(int) header.chunkCount()];
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        public Header header() {
+            return header;
+        }
+
+        // Значения [from, to) компоненты component строки row в output начиная с 0;
+        // диапазон может пересекать границы блоков по столбцам
+        public void read(long row, int component, int from, int to, double[] output) throws IOException {
+            if (row < 0 || row >= header.rows() || component < 0 || component >= header.components()
+                    || from < 0 || to > header.columns() || from > to) {
+                throw new IndexOutOfBoundsException("row=" + row + ", component=" + component + ", [" + from + ", " + to + ")");
+            }
+            int bytes = header.precision().bytes;
+            int chunkColumns = header.chunkColumns();
+            for (int column = from; column < to; ) {
+                int chunkStart = column / chunkColumns * chunkColumns;
+                int end = Math.min(to, chunkStart + chunkColumns);
+                MappedByteBuffer chunk = chunk(row, chunkStart);
+                int position = (int) ((row % header.chunkRows()) * header.chunkRowBytes()
+                        + ((long) component * chunkColumns + column - chunkStart) * bytes);
+                int length = (end - column) * bytes;
+                if (position + length > chunk.capacity()) {
+                    throw new IOException("Файл обрезан: строка " + row + ", столбцы [" + column + ", " + end
+                            + ") за концом файла");
+                }
+                ByteBuffer slice = chunk.slice(position, length).order(ByteOrder.LITTLE_ENDIAN);
+                if (header.precision() == Precision.FLOAT64) {
+                    slice.asDoubleBuffer().get(output, column - from, end - column);
+                } else {
+                    for (int i = 0; i < end - column; i++) output[column - from + i] = slice.getFloat(i * 4);
+                }
+                column = end;
+            }
+        }
+
+        public double[] readRow(long row, int component) throws IOException {
+            double[] output = new double[header.columns()];
+            read(row, component, 0, header.columns(), output);
+            return output;
+        }
+
+        private MappedByteBuffer chunk(long row, int column) throws IOException {
+            long offset = header.chunkOffset(row, column);
+            int index = (int) (offset / header.chunkStride());
+            MappedByteBuffer chunk = chunks[index];
+            if (chunk == null) {
+                // Последний блок строки может быть уже chunkColumns: отображаем только записанное
+                long rowsInChunk = Math.min(header.chunkRows(), header.rows() - row / header.chunkRows() * header.chunkRows());
+                long length = Math.min(rowsInChunk * header.chunkRowBytes(), channel.size() - dataOffset - offset);
+                if (length < 0) {
+                    throw new IOException("Файл обрезан: нет блока " + index);
+                }
+                chunk = channel.map(FileChannel.MapMode.READ_ONLY, dataOffset + offset, length);
+                chunks[index] = chunk;
+            }
+            return chunk;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
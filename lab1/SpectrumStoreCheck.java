@@ -0,0 +1,166 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+// Проверка SpectrumStore: запись и чтение длинной строки, разрезанной по столбцам (в том числе
+// диапазон через границу блоков), комплексной строки в FLOAT32, спектрограммы из многих блоков
+// и пустых файлов (rows = 0, columns = 0). Испорченные коды заголовка и обрезанный файл должны
+// давать IOException, а не ошибку индекса.
+public class SpectrumStoreCheck {
+    private static final int SIGNAL_LENGTH = 1_300_000;
+    private static final int FRAMES = 5000;
+    private static final int BINS = 257;
+
+    public static void main(String[] args) throws IOException {
+        Path dir = Files.createTempDirectory("spectrum-store");
+        int failures = 0;
+        try {
+            Random random = new Random(1);
+            double[] signal = new double[SIGNAL_LENGTH];
+            double[] negated = new double[SIGNAL_LENGTH];
+            for (int i = 0; i < signal.length; i++) {
+                signal[i] = random.nextGaussian();
+                negated[i] = -signal[i];
+            }
+            failures += report("длинная строка", checkSignal(dir.resolve("signal.dsps"), signal));
+            failures += report("FLOAT32, 2 компоненты", checkFloat(dir.resolve("float.dsps"), signal, negated));
+            Path spectrogram = dir.resolve("spectrogram.dsps");
+            failures += report("спектрограмма", checkSpectrogram(spectrogram));
+            failures += report("пустые файлы", checkEmpty(dir));
+            failures += report("испорченный заголовок", checkCorrupt(spectrogram, dir.resolve("corrupt.dsps")));
+            failures += report("обрезанный файл", checkTruncated(dir.resolve("signal.dsps"), dir.resolve("cut.dsps")));
+        } finally {
+            try (Stream<Path> files = Files.walk(dir)) {
+                for (Path path : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(path);
+            }
+        }
+        if (failures > 0) {
+            throw new IllegalStateException("Нарушений: " + failures);
+        }
+    }
+
+    private static int report(String name, boolean ok) {
+        System.out.println(name + ": " + (ok ? "ок" : "НАРУШЕНИЕ"));
+        return ok ? 0 : 1;
+    }
+
+    private static boolean checkSignal(Path path, double[] signal) throws IOException {
+        SpectrumStore.writeSignal(path, SpectrumStore.Kind.CONVOLUTION, signal, 44100);
+        try (SpectrumStore.Reader reader = SpectrumStore.open(path)) {
+            int chunkColumns = reader.header().chunkColumns();
+            if (chunkColumns >= signal.length) return false;
+            boolean ok = Arrays.equals(reader.readRow(0, 0), signal);
+            // Диапазон через границу первого блока по столбцам
+            double[] part = new double[10];
+            reader.read(0, 0, chunkColumns - 5, chunkColumns + 5, part);
+            for (int i = 0; i < part.length; i++) ok &= part[i] == signal[chunkColumns - 5 + i];
+            return ok;
+        }
+    }
+
+    private static boolean checkFloat(Path path, double[] re, double[] im) throws IOException {
+        SpectrumStore.Header header = SpectrumStore.header(SpectrumStore.Kind.SPECTRUM,
+                SpectrumStore.Precision.FLOAT32, 8000, 0, SpectrumStore.Window.HANN, 2, re.length);
+        try (SpectrumStore.Writer writer = SpectrumStore.create(path, header)) {
+            writer.writeRow(re, im);
+            writer.writeRow(im, re);
+        }
+        try (SpectrumStore.Reader reader = SpectrumStore.open(path)) {
+            boolean ok = reader.header().rows() == 2;
+            for (int row = 0; row < 2; row++) {
+                double[] first = reader.readRow(row, 0);
+                double[] second = reader.readRow(row, 1);
+                for (int i = 0; i < re.length; i++) {
+                    double expected = row == 0 ? re[i] : im[i];
+                    ok &= first[i] == (float) expected && second[i] == (float) -expected;
+                }
+            }
+            return ok;
+        }
+    }
+
+    private static boolean checkSpectrogram(Path path) throws IOException {
+        SpectrumStore.Header header = SpectrumStore.header(SpectrumStore.Kind.SPECTROGRAM,
+                SpectrumStore.Precision.FLOAT64, 8000, 512, SpectrumStore.Window.HANN, 1, BINS);
+        try (SpectrumStore.Writer writer = SpectrumStore.create(path, header)) {
+            for (int row = 0; row < FRAMES; row++) {
+                double[] frame = new double[BINS];
+                frame[0] = row;
+                frame[BINS - 1] = -row;
+                writer.writeRow(frame);
+            }
+        }
+        try (SpectrumStore.Reader reader = SpectrumStore.open(path)) {
+            boolean ok = reader.header().rows() == FRAMES && reader.header().chunkCount() > 1;
+            for (int row = 0; row < FRAMES; row += 777) {
+                double[] frame = reader.readRow(row, 0);
+                ok &= frame[0] == row && frame[BINS - 1] == -row;
+            }
+            return ok;
+        }
+    }
+
+    private static boolean checkEmpty(Path dir) throws IOException {
+        Path noRows = dir.resolve("no-rows.dsps");
+        SpectrumStore.Header header = SpectrumStore.header(SpectrumStore.Kind.SPECTROGRAM,
+                SpectrumStore.Precision.FLOAT64, 8000, 512, SpectrumStore.Window.HANN, 1, BINS);
+        SpectrumStore.create(noRows, header).close();
+        boolean ok;
+        try (SpectrumStore.Reader reader = SpectrumStore.open(noRows)) {
+            ok = reader.header().rows() == 0 && reader.header().columns() == BINS;
+        }
+
+        Path noColumns = dir.resolve("no-columns.dsps");
+        SpectrumStore.writeSignal(noColumns, SpectrumStore.Kind.SIGNAL, new double[0], 44100);
+        try (SpectrumStore.Reader reader = SpectrumStore.open(noColumns)) {
+            ok &= reader.header().rows() == 1 && reader.readRow(0, 0).length == 0;
+        }
+        return ok;
+    }
+
+    // Смещения: версия, тип, точность, окно, components
+    private static boolean checkCorrupt(Path source, Path path) throws IOException {
+        boolean ok = true;
+        for (int[] patch : new int[][]{{4, 9}, {6, 99}, {7, 3}, {16, 42}, {17, 0}}) {
+            Files.copy(source, path, StandardCopyOption.REPLACE_EXISTING);
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap(new byte[]{(byte) patch[1]}), patch[0]);
+            }
+            try {
+                SpectrumStore.open(path).close();
+                ok = false;
+            } catch (IOException expected) {
+                // Ожидаемый отказ
+            }
+        }
+        return ok;
+    }
+
+    // Файл обрезан посередине строки: чтение хвоста должно дать IOException
+    private static boolean checkTruncated(Path source, Path path) throws IOException {
+        Files.copy(source, path, StandardCopyOption.REPLACE_EXISTING);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1000);
+        }
+        try (SpectrumStore.Reader reader = SpectrumStore.open(path)) {
+            double[] head = new double[100];
+            reader.read(0, 0, 0, head.length, head);
+            try {
+                reader.readRow(0, 0);
+                return false;
+            } catch (IOException expected) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package org.example;
+
+import java.util.Arrays;
+
+// Zoom-спектр на основе chirp-z преобразования (алгоритм Bluestein):
+// bins отсчетов спектра на равномерной сетке от fStart до fEnd включительно.
+// Произведение nk заменяется на (n² + k² - (k - n)²) / 2, и сумма сводится к линейной
+// свертке с чирпом, которая считается через DspWorkspace размера >= signalLength + bins - 1.
+// Разрешение задается числом бинов в полосе, а не дополнением всего сигнала нулями
+// до огромного FFT_SIZE. Масштаб совпадает с fft: X(f) = Σ x[n]·e^(-j2πfn/fs).
+public class ZoomFft {
+    private final int signalLength;
+    private final int bins;
+    private final double fStart;
+    private final double step;
+    private final DspWorkspace ws;
+
+    // Чирп входа (с переносом fStart в ноль) и выхода, спектр ядра свертки
+    private final double[] inRe;
+    private final double[] inIm;
+    private final double[] outRe;
+    private final double[] outIm;
+    private final double[] kernelRe;
+    private final double[] kernelIm;
+    private final double[] bufferRe;
+    private final double[] bufferIm;
+
+    public ZoomFft(int signalLength, int sampleRate, double fStart, double fEnd, int bins) {
+        if (bins < 2 || fEnd <= fStart) {
+            throw new IllegalArgumentException("Нужны bins >= 2 и fEnd > fStart: " + fStart + ".." + fEnd + ", bins=" + bins);
+        }
+        this.signalLength = signalLength;
+        this.bins = bins;
+        this.fStart = fStart;
+        this.step = (fEnd - fStart) / (bins - 1);
+
+        int size = 1;
+        while (size < signalLength + bins - 1) size *= 2;
+        ws = new DspWorkspace(size);
+
+        // Фаза чирпа π·step·m²/fs; m² в long, чтобы не переполнить int на длинных сигналах
+        double chirp = Math.PI * step / sampleRate;
+        double shift = -2 * Math.PI * fStart / sampleRate;
+        inRe = new double[signalLength];
+        inIm = new double[signalLength];
+        for (int n = 0; n < signalLength; n++) {
+            double phase = shift * n - chirp * ((long) n * n);
+            inRe[n] = Math.cos(phase);
+            inIm[n] = Math.sin(phase);
+        }
+        outRe = new double[bins];
+        outIm = new double[bins];
+        for (int k = 0; k < bins; k++) {
+            double phase = -chirp * ((long) k * k);
+            outRe[k] = Math.cos(phase);
+            outIm[k] = Math.sin(phase);
+        }
+
+        // Ядро e^(+jπ·step·m²/fs) для m = -(signalLength - 1) .. bins - 1, индексы по модулю size
+        kernelRe = new double[size];
+        kernelIm = new double[size];
+        for (int m = 0; m < bins; m++) {
+            kernelRe[m] = Math.cos(chirp * ((long) m * m));
+            kernelIm[m] = Math.sin(chirp * ((long) m * m));
+        }
+        for (int m = 1; m < signalLength; m++) {
+            kernelRe[size - m] = Math.cos(chirp * ((long) m * m));
+            kernelIm[size - m] = Math.sin(chirp * ((long) m * m));
+        }
+        ws.transform(kernelRe, kernelIm, false);
+
+        bufferRe = new double[size];
+        bufferIm = new double[size];
+    }
+
+    public int bins() {
+        return bins;
+    }
+
+    public double frequency(int bin) {
+        return fStart + bin * step;
+    }
+
+    // Спектр полосы в re/im (длиной не меньше bins); память не выделяется
+    public void transform(double[] signal, double[] re, double[] im) {
+        if (signal.length < signalLength) {
+            throw new IllegalArgumentException("Сигнал короче заданной длины: " + signal.length + " < " + signalLength);
+        }
+        int size = ws.size();
+        for (int n = 0; n < signalLength; n++) {
+            bufferRe[n] = signal[n] * inRe[n];
+            bufferIm[n] = signal[n] * inIm[n];
+        }
+        Arrays.fill(bufferRe, signalLength, size, 0.0);
+        Arrays.fill(bufferIm, signalLength, size, 0.0);
+
+        ws.transform(bufferRe, bufferIm, false);
+        for (int i = 0; i < size; i++) {
+            double r = bufferRe[i] * kernelRe[i] - bufferIm[i] * kernelIm[i];
+            double m = bufferRe[i] * kernelIm[i] + bufferIm[i] * kernelRe[i];
+            bufferRe[i] = r;
+            bufferIm[i] = m;
+        }
+        ws.transform(bufferRe, bufferIm, true);
+
+        for (int k = 0; k < bins; k++) {
+            double r = bufferRe[k] / size;
+            double m = bufferIm[k] / size;
+            re[k] = r * outRe[k] - m * outIm[k];
+            im[k] = r * outIm[k] + m * outRe[k];
+        }
+    }
+}